@@ -1,13 +1,23 @@
 package com.simplecoder.config;
 
+import com.simplecoder.service.ParallelToolCallingManager;
+import com.simplecoder.service.ToolsService;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Configuration for ChatClient with logging advisor.
+ * Configuration for ChatClient with logging advisor, and for how the model's tool calls are executed.
  */
+@Slf4j
 @Configuration
 public class AiConfig {
 
@@ -17,4 +27,23 @@ public class AiConfig {
                 .defaultAdvisors(new SimpleLoggerAdvisor())
                 .build();
     }
+
+    /**
+     * Replaces Spring AI's auto-configured manager (built the same way) so that independent read-only tool calls
+     * of one model turn run concurrently; see {@link ParallelToolCallingManager}.
+     */
+    @Bean
+    public ToolCallingManager toolCallingManager(
+            ToolCallbackResolver toolCallbackResolver,
+            ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+            ObjectProvider<ObservationRegistry> observationRegistry,
+            @Value("${simple-coder.agent.parallel-tool-calls:true}") boolean parallelToolCalls) {
+        ToolCallingManager sequential = ToolCallingManager.builder()
+                .observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
+                .toolCallbackResolver(toolCallbackResolver)
+                .toolExecutionExceptionProcessor(toolExecutionExceptionProcessor)
+                .build();
+        log.info("ToolCallingManager initialized with parallel-tool-calls={}", parallelToolCalls);
+        return parallelToolCalls ? new ParallelToolCallingManager(sequential, ToolsService.READ_ONLY_TOOLS) : sequential;
+    }
 }
@@ -1,18 +1,24 @@
 package com.simplecoder.controller;
 
+import com.simplecoder.model.AgentEvent;
 import com.simplecoder.model.ToolRequest;
 import com.simplecoder.model.ToolResponse;
 import com.simplecoder.service.AgentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 /**
- * REST controller exposing single-turn agent endpoint.
+ * REST controller exposing single-turn agent endpoints: a blocking one returning the final response, and a
+ * Server-Sent Events one streaming tokens and tool calls while the agent runs. POST /sessions starts a
+ * server-side session whose id requests can send instead of the full history.
  */
 @Slf4j
 @RestController
@@ -29,6 +35,18 @@ public class AgentController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/sessions")
+    public ResponseEntity<ToolResponse> createSession() {
+        return ResponseEntity.ok(agentService.createSession());
+    }
+
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AgentEvent>> stream(@RequestBody ToolRequest request) {
+        log.info("Incoming streaming agent request toolType='{}' prompt='{}'", request.getToolType(), abbreviate(request.getPrompt()));
+        return agentService.stream(request)
+                .map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
+    }
+
     private String abbreviate(String s) {
         if (s == null) return "";
         return s.length() <= 120 ? s : s.substring(0, 117) + "...";
@@ -0,0 +1,91 @@
+package com.simplecoder.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One event of a streamed agent run (POST /api/agent/stream), sent as a Server-Sent Event named after its type.
+ *
+ * <p>Event types, in the order a client sees them:
+ * - start: sent as soon as the request is accepted
+ * - token: a piece of the model's answer (text)
+ * - tool_start: a tool call begins (tool, arguments)
+ * - tool_end: a tool call finished (tool, durationMs, success, text = start of the result or the error)
+ * - done / error: the run finished (steps = tool-call rounds used; error carries the message in text)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AgentEvent {
+
+    public static final String START = "start";
+    public static final String TOKEN = "token";
+    public static final String TOOL_START = "tool_start";
+    public static final String TOOL_END = "tool_end";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    /**
+     * Event type, one of the constants above.
+     */
+    private String type;
+
+    /**
+     * Answer text for token events, result preview for tool_end, message for error.
+     */
+    private String text;
+
+    /**
+     * Tool name for tool_start and tool_end events.
+     */
+    private String tool;
+
+    /**
+     * Tool call arguments (JSON) for tool_start events.
+     */
+    private String arguments;
+
+    /**
+     * Tool call duration for tool_end events.
+     */
+    private Long durationMs;
+
+    /**
+     * Whether the tool call succeeded, for tool_end events.
+     */
+    private Boolean success;
+
+    /**
+     * Tool-call rounds used, for done and error events.
+     */
+    private Integer steps;
+
+    public static AgentEvent start() {
+        return AgentEvent.builder().type(START).build();
+    }
+
+    public static AgentEvent token(String text) {
+        return AgentEvent.builder().type(TOKEN).text(text).build();
+    }
+
+    public static AgentEvent toolStart(String tool, String arguments) {
+        return AgentEvent.builder().type(TOOL_START).tool(tool).arguments(arguments).build();
+    }
+
+    public static AgentEvent toolEnd(String tool, long durationMs, boolean success, String text) {
+        return AgentEvent.builder().type(TOOL_END).tool(tool).durationMs(durationMs).success(success).text(text).build();
+    }
+
+    public static AgentEvent done(int steps) {
+        return AgentEvent.builder().type(DONE).steps(steps).build();
+    }
+
+    public static AgentEvent error(String message, int steps) {
+        return AgentEvent.builder().type(ERROR).text(message).steps(steps).build();
+    }
+}
@@ -5,16 +5,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Represents a user request to the coding agent.
  *
- * <p>Stateless design: Client maintains conversation history and sends it with each request.
+ * <p>By default the client maintains conversation history and sends it with each request; in session mode the
+ * server keeps it (see SessionStore).
  * - prompt: user's natural language request
  * - toolType: explicit tool selection (optional, "auto" delegates to LLM)
  * - contextHistory: previous conversation context entries (client-managed)
+ * - sessionId: optional session mode; the server keeps the history and contextHistory is ignored
  *
  * <p>Naming: While "ToolRequest/ToolResponse" focuses on the tool-calling aspect,
  * renaming to "AgentRequest/AgentResponse" would better reflect the broader agent concept.
@@ -44,6 +47,16 @@ public class ToolRequest {
      */
     private List<ContextEntry> contextHistory;
 
+    /**
+     * Server-side session holding the conversation history (optional, from POST /api/agent/sessions).
+     * When set, the server uses and extends the session's history, and the client sends only the new prompt.
+     */
+    private String sessionId;
+
+    public ToolRequest(String prompt, String toolType, List<ContextEntry> contextHistory) {
+        this(prompt, toolType, contextHistory, null);
+    }
+
     /**
      * Validates that the request has required fields.
      *
@@ -68,8 +81,19 @@ public class ToolRequest {
         if (contextHistory == null || contextHistory.isEmpty()) {
             return "No previous context.";
         }
-        return contextHistory.stream()
-                .map(ContextEntry::getSummary)
+        return formatContextSummary(contextHistory.stream().map(ContextEntry::getSummary).toList());
+    }
+
+    /**
+     * Formats entry summaries (see {@link ContextEntry#getSummary()}) as a context block for the LLM.
+     *
+     * @return formatted context string, or "No previous context." if there are no summaries
+     */
+    public static String formatContextSummary(Collection<String> summaries) {
+        if (summaries.isEmpty()) {
+            return "No previous context.";
+        }
+        return summaries.stream()
                 .collect(Collectors.joining("\n", "--- Recent Context ---\n", "\n--- End Context ---"));
     }
 }
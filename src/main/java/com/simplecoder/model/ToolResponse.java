@@ -14,6 +14,7 @@ import lombok.NoArgsConstructor;
  * - message: human-readable result or error description
  * - data: optional structured data (file content, search results, etc.)
  * - error: optional error details for debugging
+ * - steps: tool-call rounds used by the agent loop
  */
 @Data
 @Builder
@@ -49,6 +50,15 @@ public class ToolResponse {
      */
     private String error;
 
+    /**
+     * Tool-call rounds the agent used to produce this response (absent for responses not produced by the agent loop).
+     */
+    private Integer steps;
+
+    public ToolResponse(boolean success, String message, Object data, String error) {
+        this(success, message, data, error, null);
+    }
+
     /**
      * Creates a success response with message and data.
      *
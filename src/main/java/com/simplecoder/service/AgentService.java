@@ -1,57 +1,330 @@
 package com.simplecoder.service;
 
+import com.simplecoder.model.AgentEvent;
+import com.simplecoder.model.ContextEntry;
 import com.simplecoder.model.ToolRequest;
 import com.simplecoder.model.ToolResponse;
+import com.simplecoder.tool.PathValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Core stateless agent service.
- * Uses Spring AI's built-in ReAct loop via ChatClient with registered tools.
- * The AI model automatically decides when to call tools, how many times, and when to return final answer.
- * This replaces the previous manual multi-step loop with the framework's native agentic behavior.
+ * Runs the ReAct loop with the AI model deciding when to call tools, how many times, and when to return the
+ * final answer.
+ *
+ * <p>The loop is driven here rather than inside Spring AI (internal tool execution is disabled) so that every
+ * request is governed:
+ * - Each model response with tool calls is one step, executed through the ToolCallingManager
+ * - After max-steps steps the model is asked once more, without tools, for a final answer from what it has
+ * - Once max-duration has passed the run stops with an error instead of starting another model call or step
+ * The steps used are reported in the response.
+ *
+ * <p>Within one request, repeated read-only tool calls are answered from a {@link ToolResultMemo}.
+ * Requests with a sessionId take their context from the {@link SessionStore} and add their outcome to it.
  */
 @Slf4j
 @Service
 public class AgentService {
 
+    static final String FINAL_ANSWER_NOTE = "The tool-call budget for this request is used up. Do not call any more "
+            + "tools: give your final answer now, based on the information gathered so far.";
+
     private final ChatClient chatClient;
-    private final ToolsService toolsService;
+    private final ToolCallback[] toolCallbacks;
+    private final ToolCallingManager toolCallingManager;
+    private final PathValidator pathValidator;
+    private final SessionStore sessionStore;
+    private final int maxSteps;
+    private final Duration maxDuration;
+    private final boolean memoizeToolResults;
 
-    public AgentService(ChatClient chatClient, ToolsService toolsService) {
+    public AgentService(ChatClient chatClient, ToolsService toolsService, ToolCallingManager toolCallingManager,
+                        PathValidator pathValidator, SessionStore sessionStore,
+                        @Value("${simple-coder.agent.max-steps:10}") int maxSteps,
+                        @Value("${simple-coder.agent.max-duration:120s}") Duration maxDuration,
+                        @Value("${simple-coder.agent.memoize-tool-results:true}") boolean memoizeToolResults) {
         this.chatClient = chatClient;
-        this.toolsService = toolsService;
+        this.toolCallbacks = ToolCallbacks.from(toolsService); // resolve the @Tool methods once, not per request
+        this.toolCallingManager = toolCallingManager;
+        this.pathValidator = pathValidator;
+        this.sessionStore = sessionStore;
+        this.maxSteps = maxSteps;
+        this.maxDuration = maxDuration;
+        this.memoizeToolResults = memoizeToolResults;
+        log.info("AgentService initialized with max-steps={}, max-duration={}, memoize-tool-results={}",
+                maxSteps, maxDuration, memoizeToolResults);
+    }
+
+    /**
+     * Starts a server-side session; the client passes the returned sessionId instead of its history.
+     */
+    public ToolResponse createSession() {
+        return ToolResponse.success("Session created", Map.of("sessionId", sessionStore.create()));
     }
 
     public ToolResponse process(ToolRequest request) {
+        LoopBudget budget = new LoopBudget(maxSteps, maxDuration);
         try {
             request.validate();
 
-            // Build prompt with context history if present
-            String contextSummary = request.buildContextSummary();
-            StringBuilder promptBuilder = new StringBuilder();
-            if (contextSummary != null && !contextSummary.isBlank()) {
-                promptBuilder.append("Context History:\n").append(contextSummary).append("\n\n");
-            }
-            promptBuilder.append("User Request:\n").append(request.getPrompt());
-
-            // Single ChatClient call - Spring AI handles the entire ReAct loop internally:
+            // The ReAct loop:
             // 1. AI decides which tools to call (if any)
-            // 2. Framework executes tools automatically
+            // 2. The ToolCallingManager executes them
             // 3. AI sees tool results and decides next action (more tools or final answer)
-            // 4. Returns when AI determines task is complete
-            String result = chatClient.prompt()
-                    .user(promptBuilder.toString())
-                    .tools(toolsService)  // Register all @Tool methods
-                    .call()
-                    .content();
+            // 4. Ends when AI gives a final answer or the budget runs out
+            ChatResponse response = runLoop(initialPrompt(request, requestToolCallbacks(budget)), budget,
+                    prompt -> chatClient.prompt(prompt).call().chatResponse());
 
-            return ToolResponse.success("AI response", result);
+            ToolResponse toolResponse = budget.timedOut()
+                    ? ToolResponse.error("Agent stopped", budget.timeoutMessage())
+                    : ToolResponse.success("AI response", answer(response));
+            toolResponse.setSteps(budget.steps());
+            remember(request, budget.timedOut() ? "Failed: " + budget.timeoutMessage() : answer(response));
+            return toolResponse;
 
         } catch (Exception e) {
             log.error("Failed to process ToolRequest", e);
-            return ToolResponse.error("AgentService error", e.getMessage());
+            ToolResponse toolResponse = ToolResponse.error("AgentService error", e.getMessage());
+            toolResponse.setSteps(budget.steps());
+            remember(request, "Failed: " + e.getMessage());
+            return toolResponse;
+        }
+    }
+
+    /**
+     * Runs the same governed ReAct loop as {@link #process} but streams it: a start event immediately, then model
+     * tokens and tool_start/tool_end events as they happen, then done or error with the steps used. Errors are
+     * reported as events, never as a failed Flux, so the client always sees how the run ended.
+     */
+    public Flux<AgentEvent> stream(ToolRequest request) {
+        return Flux.<AgentEvent>create(sink -> {
+            sink.next(AgentEvent.start());
+            LoopBudget budget = new LoopBudget(maxSteps, maxDuration);
+            try {
+                request.validate();
+
+                // Tools run between the model turns, so their events interleave with the tokens in order
+                ToolCallback[] observed = Arrays.stream(requestToolCallbacks(budget))
+                        .map(callback -> new ObservedToolCallback(callback, sink::next))
+                        .toArray(ToolCallback[]::new);
+                ChatResponse response = runLoop(initialPrompt(request, observed), budget,
+                        prompt -> streamTurn(prompt, budget, sink));
+
+                sink.next(budget.timedOut()
+                        ? AgentEvent.error(budget.timeoutMessage(), budget.steps())
+                        : AgentEvent.done(budget.steps()));
+                remember(request, budget.timedOut() ? "Failed: " + budget.timeoutMessage() : answer(response));
+            } catch (Exception e) {
+                log.error("Failed to stream ToolRequest", e);
+                Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+                String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                sink.next(AgentEvent.error(message, budget.steps()));
+                remember(request, "Failed: " + message);
+            }
+            sink.complete();
+        }).subscribeOn(Schedulers.boundedElastic()); // the loop blocks between turns; keep it off the servlet thread
+    }
+
+    /**
+     * Calls the model until it answers without tool calls or the budget runs out.
+     *
+     * @param turn one model call for a prompt
+     * @return the final model response (its content is the answer); meaningless if the budget timed out
+     */
+    private ChatResponse runLoop(Prompt prompt, LoopBudget budget, Function<Prompt, ChatResponse> turn) {
+        ChatResponse response = turn.apply(prompt);
+        while (response != null && response.hasToolCalls()) {
+            if (budget.expired()) {
+                return response;
+            }
+            if (budget.stepsUsedUp()) {
+                log.warn("Step budget of {} used up - asking for a final answer without tools", maxSteps);
+                return turn.apply(finalAnswerPrompt(prompt));
+            }
+
+            ToolExecutionResult result = toolCallingManager.executeToolCalls(prompt, response);
+            budget.step();
+            if (result.returnDirect()) {
+                return ChatResponse.builder().from(response).generations(ToolExecutionResult.buildGenerations(result)).build();
+            }
+            if (budget.expired()) {
+                return response;
+            }
+            prompt = new Prompt(result.conversationHistory(), prompt.getOptions());
+            response = turn.apply(prompt);
+        }
+        return response;
+    }
+
+    /**
+     * One streamed model call: emits text as token events and returns the whole turn (text and tool calls).
+     * The stream is cut off at the request's deadline, which ends the loop as timed out.
+     *
+     * @return the turn, or null if the client went away or the deadline passed
+     */
+    private ChatResponse streamTurn(Prompt prompt, LoopBudget budget, FluxSink<AgentEvent> sink) {
+        if (budget.expired()) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>();
+        chatClient.prompt(prompt).stream().chatResponse()
+                .take(budget.remaining()) // completes (rather than fails) when time runs out
+                .takeWhile(chunk -> !sink.isCancelled())
+                .doOnNext(chunk -> {
+                    for (Generation generation : chunk.getResults()) {
+                        AssistantMessage message = generation.getOutput();
+                        if (message == null) {
+                            continue;
+                        }
+                        if (message.getText() != null && !message.getText().isEmpty()) {
+                            text.append(message.getText());
+                            sink.next(AgentEvent.token(message.getText()));
+                        }
+                        toolCalls.addAll(message.getToolCalls());
+                    }
+                })
+                .blockLast();
+        if (sink.isCancelled() || budget.expired()) {
+            return null; // client went away or time is up: stop the loop
+        }
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text.toString(), Map.of(), toolCalls))));
+    }
+
+    /**
+     * The tools for one request: behind a fresh memo unless memoization is off.
+     */
+    private ToolCallback[] requestToolCallbacks(LoopBudget budget) {
+        if (!memoizeToolResults) {
+            return toolCallbacks;
+        }
+        // Tools run before the step is counted, so the calls being executed belong to the next step
+        return new ToolResultMemo(pathValidator, ToolsService.READ_ONLY_TOOLS, () -> budget.steps() + 1).wrap(toolCallbacks);
+    }
+
+    private Prompt initialPrompt(ToolRequest request, ToolCallback[] callbacks) {
+        ToolCallingChatOptions options = ToolCallingChatOptions.builder()
+                .toolCallbacks(callbacks)  // Register all @Tool methods
+                .internalToolExecutionEnabled(false)
+                .build();
+        return new Prompt(List.of(new UserMessage(buildPrompt(request))), options);
+    }
+
+    /**
+     * The conversation so far (ending with the last tool results) plus a note demanding an answer, with no tools
+     * offered so the model cannot call any.
+     */
+    private static Prompt finalAnswerPrompt(Prompt prompt) {
+        List<Message> messages = new ArrayList<>(prompt.getInstructions());
+        messages.add(new UserMessage(FINAL_ANSWER_NOTE));
+        return new Prompt(messages, ToolCallingChatOptions.builder().internalToolExecutionEnabled(false).build());
+    }
+
+    private static String answer(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return null;
+        }
+        return response.getResult().getOutput().getText();
+    }
+
+    /**
+     * Adds the interaction to the request's session, if it has one.
+     */
+    private void remember(ToolRequest request, String result) {
+        if (request.getSessionId() != null) {
+            sessionStore.append(request.getSessionId(), ContextEntry.builder().prompt(request.getPrompt()).result(result).build());
+        }
+    }
+
+    /**
+     * Build prompt with context history if present: the session's in session mode, otherwise the client's.
+     */
+    private String buildPrompt(ToolRequest request) {
+        String contextSummary = request.getSessionId() != null
+                ? sessionStore.contextSummary(request.getSessionId())
+                : request.buildContextSummary();
+        StringBuilder promptBuilder = new StringBuilder();
+        if (contextSummary != null && !contextSummary.isBlank()) {
+            promptBuilder.append("Context History:\n").append(contextSummary).append("\n\n");
+        }
+        promptBuilder.append("User Request:\n").append(request.getPrompt());
+        return promptBuilder.toString();
+    }
+
+    /**
+     * Steps taken and time left for one request.
+     */
+    private static final class LoopBudget {
+
+        private final int maxSteps;
+        private final Duration maxDuration;
+        private final long deadlineNanos;
+        private int steps;
+        private boolean timedOut;
+
+        LoopBudget(int maxSteps, Duration maxDuration) {
+            this.maxSteps = maxSteps;
+            this.maxDuration = maxDuration;
+            this.deadlineNanos = System.nanoTime() + maxDuration.toNanos();
+        }
+
+        void step() {
+            steps++;
+        }
+
+        int steps() {
+            return steps;
+        }
+
+        boolean stepsUsedUp() {
+            return steps >= maxSteps;
+        }
+
+        /**
+         * Whether the deadline has passed; once true, {@link #timedOut()} stays true.
+         */
+        boolean expired() {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                timedOut = true;
+            }
+            return timedOut;
+        }
+
+        boolean timedOut() {
+            return timedOut;
+        }
+
+        Duration remaining() {
+            return Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0));
+        }
+
+        String timeoutMessage() {
+            return "Time limit of " + maxDuration.toSeconds() + "s reached after " + steps + " tool-call steps";
         }
     }
 }
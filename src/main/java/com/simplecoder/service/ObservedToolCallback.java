@@ -0,0 +1,67 @@
+package com.simplecoder.service;
+
+import com.simplecoder.model.AgentEvent;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.function.Consumer;
+
+/**
+ * Wraps a tool so every call reports tool_start and tool_end {@link AgentEvent}s to a listener.
+ * AgentService creates one set per streamed request; the listener forwards the events to the client.
+ */
+public class ObservedToolCallback implements ToolCallback {
+
+    static final int PREVIEW_CHARS = 200;
+
+    private final ToolCallback delegate;
+    private final Consumer<AgentEvent> listener;
+
+    public ObservedToolCallback(ToolCallback delegate, Consumer<AgentEvent> listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String name = delegate.getToolDefinition().name();
+        listener.accept(AgentEvent.toolStart(name, toolInput));
+        long start = System.nanoTime();
+        try {
+            String result = delegate.call(toolInput, toolContext);
+            listener.accept(AgentEvent.toolEnd(name, elapsedMs(start), true, preview(result)));
+            return result;
+        } catch (RuntimeException e) {
+            listener.accept(AgentEvent.toolEnd(name, elapsedMs(start), false, preview(e.getMessage())));
+            throw e;
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static String preview(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() <= PREVIEW_CHARS ? text : text.substring(0, PREVIEW_CHARS) + "...";
+    }
+}
@@ -0,0 +1,163 @@
+package com.simplecoder.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ToolCallingManager that runs the independent read-only tool calls of one model turn concurrently.
+ *
+ * <p>Spring AI's default manager executes the tool calls of a response one after another. This decorator first
+ * starts the leading read-only calls (tools in the read-only set, up to the first other call) together on
+ * virtual threads, then lets the delegate run the turn as usual; when the delegate reaches one of those calls
+ * it takes the result of the already running call instead of starting it again. A turn of reads therefore
+ * takes as long as its slowest read, not the sum of them.
+ *
+ * <p>Everything else stays with the delegate, so the conversation history is the same as a sequential run:
+ * - Mutating calls run in order, after every read before them has finished
+ * - Reads after a mutating call are not started early (they must see its effect)
+ * - Result messages, exception handling and observations are the delegate's
+ */
+@Slf4j
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private final ToolCallingManager delegate;
+    private final Set<String> readOnlyTools;
+
+    public ParallelToolCallingManager(ToolCallingManager delegate, Set<String> readOnlyTools) {
+        this.delegate = delegate;
+        this.readOnlyTools = readOnlyTools;
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        // A tool context is extended per call by the delegate (with the call history); leave those turns alone
+        if (!(prompt.getOptions() instanceof ToolCallingChatOptions options)
+                || (options.getToolContext() != null && !options.getToolContext().isEmpty())) {
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+        Map<String, ToolCallback> callbacks = new HashMap<>();
+        for (ToolCallback callback : options.getToolCallbacks()) {
+            callbacks.putIfAbsent(callback.getToolDefinition().name(), callback);
+        }
+        List<AssistantMessage.ToolCall> leadingReads = toolCalls(chatResponse).stream()
+                .takeWhile(call -> readOnlyTools.contains(call.name()) && callbacks.containsKey(call.name()))
+                .toList();
+        if (leadingReads.size() < 2) {
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+
+        log.debug("Running {} read-only tool calls concurrently", leadingReads.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ToolContext toolContext = new ToolContext(Map.of());
+            Map<String, Deque<Future<String>>> started = new HashMap<>();
+            for (AssistantMessage.ToolCall call : leadingReads) {
+                ToolCallback callback = callbacks.get(call.name());
+                started.computeIfAbsent(key(call.name(), call.arguments()), k -> new ArrayDeque<>())
+                        .add(executor.submit(() -> callback.call(call.arguments(), toolContext)));
+            }
+
+            ToolCallingChatOptions prefetched = options.copy();
+            prefetched.setToolCallbacks(options.getToolCallbacks().stream()
+                    .map(callback -> readOnlyTools.contains(callback.getToolDefinition().name())
+                            ? new PrefetchedToolCallback(callback, started) : callback)
+                    .toList());
+            return delegate.executeToolCalls(new Prompt(prompt.getInstructions(), prefetched), chatResponse);
+        }
+    }
+
+    /**
+     * The tool calls the delegate will execute: those of the first generation that has any.
+     */
+    private static List<AssistantMessage.ToolCall> toolCalls(ChatResponse chatResponse) {
+        return chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(message -> message != null && message.hasToolCalls())
+                .findFirst()
+                .map(AssistantMessage::getToolCalls)
+                .orElse(List.of());
+    }
+
+    private static String key(String name, String arguments) {
+        return name + '\0' + arguments;
+    }
+
+    /**
+     * Answers a call from the matching already started call, or runs it if there is none.
+     */
+    private static final class PrefetchedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private final Map<String, Deque<Future<String>>> started;
+
+        private PrefetchedToolCallback(ToolCallback delegate, Map<String, Deque<Future<String>>> started) {
+            this.delegate = delegate;
+            this.started = started;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            Deque<Future<String>> futures = started.get(key(getToolDefinition().name(), toolInput));
+            Future<String> future = futures != null ? futures.poll() : null;
+            if (future == null) {
+                return delegate.call(toolInput, toolContext);
+            }
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                // Rethrow what the tool threw, so the delegate's exception handling sees the same exception
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new ToolExecutionException(getToolDefinition(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ToolExecutionException(getToolDefinition(), e);
+            }
+        }
+    }
+}
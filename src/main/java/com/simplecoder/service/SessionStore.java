@@ -0,0 +1,190 @@
+package com.simplecoder.service;
+
+import com.simplecoder.model.ContextEntry;
+import com.simplecoder.model.ToolRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side conversation history for clients that use session mode (ToolRequest.sessionId) instead of sending
+ * the whole history with every request.
+ *
+ * <p>A session keeps the summaries of its most recent interactions (max-entries), rendered once when they are
+ * added, so a request costs the same however long the conversation has been. The store is bounded:
+ * - Memory: entries are accounted by size (2 bytes per char plus overhead); over max-bytes the least recently
+ * used sessions are evicted, and a single oversized session loses its oldest entries
+ * - Idle time: sessions not used for idle-timeout are evicted (checked on every access)
+ * A request naming an evicted or unknown session fails, and the client starts a new one.
+ *
+ * <p>Session/byte/eviction counts are available from {@link #stats()} and as {@code simplecoder.session.*} meters.
+ */
+@Slf4j
+@Component
+public class SessionStore implements MeterBinder {
+
+    static final long ENTRY_OVERHEAD_BYTES = 64;
+    static final long SESSION_OVERHEAD_BYTES = 256;
+
+    private final long maxBytes;
+    private final int maxEntries;
+    private final long idleTimeoutNanos;
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    private static final class Session {
+        final ArrayDeque<String> summaries = new ArrayDeque<>();
+        long bytes = SESSION_OVERHEAD_BYTES;
+        long lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * Point-in-time store counters.
+     */
+    public record Stats(int sessions, int entries, long bytes, long evictions) {
+    }
+
+    public SessionStore(
+            @Value("${simple-coder.session.max-bytes:33554432}") long maxBytes,
+            @Value("${simple-coder.session.max-entries:20}") int maxEntries,
+            @Value("${simple-coder.session.idle-timeout:30m}") Duration idleTimeout) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        log.info("SessionStore initialized with max-bytes={}, max-entries={}, idle-timeout={}", maxBytes, maxEntries, idleTimeout);
+    }
+
+    /**
+     * Starts an empty session.
+     *
+     * @return the new session's id
+     */
+    public String create() {
+        String id = UUID.randomUUID().toString();
+        synchronized (sessions) {
+            evictIdle();
+            sessions.put(id, new Session());
+            totalBytes += SESSION_OVERHEAD_BYTES;
+            evictToBudget(id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the session's history formatted like {@link ToolRequest#buildContextSummary()}.
+     *
+     * @throws IllegalArgumentException if the session does not exist (never created, or evicted)
+     */
+    public String contextSummary(String id) {
+        synchronized (sessions) {
+            evictIdle();
+            Session session = sessions.get(id);
+            if (session == null) {
+                throw new IllegalArgumentException("Unknown or expired session: " + id);
+            }
+            session.lastAccessNanos = System.nanoTime();
+            return ToolRequest.formatContextSummary(session.summaries);
+        }
+    }
+
+    /**
+     * Adds an interaction to the session's history; does nothing if the session no longer exists.
+     */
+    public void append(String id, ContextEntry entry) {
+        String summary = entry.getSummary();
+        long entryBytes = bytes(summary);
+        synchronized (sessions) {
+            evictIdle();
+            Session session = sessions.get(id);
+            if (session == null) {
+                return;
+            }
+            session.lastAccessNanos = System.nanoTime();
+            session.summaries.addLast(summary);
+            session.bytes += entryBytes;
+            totalBytes += entryBytes;
+            while (session.summaries.size() > maxEntries) {
+                removeOldest(session);
+            }
+            evictToBudget(id);
+        }
+    }
+
+    public Stats stats() {
+        synchronized (sessions) {
+            int entries = sessions.values().stream().mapToInt(session -> session.summaries.size()).sum();
+            return new Stats(sessions.size(), entries, totalBytes, evictions.sum());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("simplecoder.session.evictions", evictions, LongAdder::doubleValue)
+                .description("Sessions evicted for being idle or to stay within max-bytes").register(registry);
+        Gauge.builder("simplecoder.session.count", this, s -> s.stats().sessions())
+                .description("Sessions currently stored").register(registry);
+        Gauge.builder("simplecoder.session.size", this, s -> s.stats().bytes())
+                .baseUnit("bytes").description("Estimated bytes of session history currently stored").register(registry);
+    }
+
+    private static long bytes(String summary) {
+        return 2L * summary.length() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private void removeOldest(Session session) {
+        long entryBytes = bytes(session.summaries.removeFirst());
+        session.bytes -= entryBytes;
+        totalBytes -= entryBytes;
+    }
+
+    /**
+     * Drops sessions idle for longer than idle-timeout. Access order means the idle ones come first.
+     */
+    private void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            Session session = it.next();
+            if (now - session.lastAccessNanos <= idleTimeoutNanos) {
+                break;
+            }
+            totalBytes -= session.bytes;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Evicts least recently used sessions other than the current one until within max-bytes, then trims the
+     * current session's oldest entries if it alone is still too large.
+     */
+    private void evictToBudget(String currentId) {
+        Iterator<Map.Entry<String, Session>> it = sessions.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Session> eldest = it.next();
+            if (eldest.getKey().equals(currentId)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().bytes;
+            it.remove();
+            evictions.increment();
+        }
+        Session current = sessions.get(currentId);
+        while (totalBytes > maxBytes && current != null && !current.summaries.isEmpty()) {
+            removeOldest(current);
+        }
+    }
+}
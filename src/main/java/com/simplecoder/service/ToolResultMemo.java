@@ -0,0 +1,206 @@
+package com.simplecoder.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.simplecoder.tool.PathValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Remembers the results of read-only tool calls for the duration of one agent request, so a call the model
+ * repeats with the same arguments is neither executed again nor added to the conversation a second time.
+ *
+ * <p>Calls are keyed by tool name and normalized arguments (keys sorted, null arguments dropped, file paths
+ * resolved against the repository root). A repeat gets a short reference to the step whose result it would
+ * duplicate; the earlier result is still in the conversation. Results shorter than the reference are returned
+ * as they are.
+ *
+ * <p>Edits invalidate what they may have changed:
+ * - replaceText / applyEdits: reads of the edited files and every search (listings stay valid)
+ * - any other mutating tool (e.g. applyPatch, which can create files): everything
+ * Failed calls are not remembered.
+ */
+@Slf4j
+public class ToolResultMemo {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    private static final Set<String> PATH_ARGUMENTS = Set.of("filePath", "path", "searchPath");
+    private static final Set<String> SEARCH_TOOLS = Set.of("searchText", "searchMultiple");
+
+    private final PathValidator pathValidator;
+    private final Set<String> readOnlyTools;
+    private final IntSupplier currentStep;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param readOnlyTools tools whose results may be remembered; calls to any other tool invalidate
+     * @param currentStep   step number of the tool calls being executed, used in references
+     */
+    public ToolResultMemo(PathValidator pathValidator, Set<String> readOnlyTools, IntSupplier currentStep) {
+        this.pathValidator = pathValidator;
+        this.readOnlyTools = readOnlyTools;
+        this.currentStep = currentStep;
+    }
+
+    /**
+     * Wraps the tools so their calls go through this memo.
+     */
+    public ToolCallback[] wrap(ToolCallback[] callbacks) {
+        return Arrays.stream(callbacks).map(MemoizedToolCallback::new).toArray(ToolCallback[]::new);
+    }
+
+    static String reference(String tool, int step) {
+        return "Unchanged since step " + step + ": same result as the identical " + tool
+                + " call in step " + step + " (shown above); nothing it depends on has been edited since.";
+    }
+
+    private String call(ToolCallback delegate, String toolInput, ToolContext toolContext) {
+        String tool = delegate.getToolDefinition().name();
+        JsonNode arguments = parse(toolInput);
+        if (!readOnlyTools.contains(tool)) {
+            try {
+                return delegate.call(toolInput, toolContext);
+            } finally {
+                invalidate(tool, arguments); // also after a failure: an edit may have been partly applied
+            }
+        }
+
+        String key = arguments != null ? tool + '\0' + canonical(arguments) : null;
+        Entry entry = key != null ? entries.get(key) : null;
+        if (entry != null) {
+            String reference = reference(tool, entry.step());
+            log.debug("{} call answered from step {}", tool, entry.step());
+            return reference.length() < entry.result().length() ? reference : entry.result();
+        }
+
+        String result = delegate.call(toolInput, toolContext);
+        if (key != null) {
+            entries.putIfAbsent(key, new Entry(currentStep.getAsInt(), result, readFiles(tool, arguments), SEARCH_TOOLS.contains(tool)));
+        }
+        return result;
+    }
+
+    private void invalidate(String tool, JsonNode arguments) {
+        Set<Path> edited = switch (tool) {
+            case "replaceText" -> arguments != null ? paths(Set.of(arguments), "filePath") : null;
+            case "applyEdits" -> arguments != null && arguments.get("edits") != null
+                    ? paths(iterable(arguments.get("edits")), "filePath") : null;
+            default -> null;
+        };
+        if (edited == null || edited.contains(null)) {
+            entries.clear();
+            return;
+        }
+        entries.values().removeIf(entry -> entry.search() || entry.files().stream().anyMatch(edited::contains));
+    }
+
+    /**
+     * Files whose content the result of a read-only call shows.
+     */
+    private Set<Path> readFiles(String tool, JsonNode arguments) {
+        return switch (tool) {
+            case "readFile" -> paths(Set.of(arguments), "filePath");
+            case "readFiles" -> arguments.get("files") != null ? paths(iterable(arguments.get("files")), "path") : Set.of();
+            default -> Set.of();
+        };
+    }
+
+    /**
+     * The resolved paths under the given field; contains null for a path that could not be resolved.
+     */
+    private Set<Path> paths(Iterable<JsonNode> nodes, String field) {
+        Set<Path> paths = new HashSet<>();
+        for (JsonNode node : nodes) {
+            JsonNode value = node.get(field);
+            paths.add(value != null && value.isTextual() ? resolve(value.asText()) : null);
+        }
+        return paths;
+    }
+
+    private Path resolve(String path) {
+        try {
+            return pathValidator.validate(path);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Iterable<JsonNode> iterable(JsonNode array) {
+        return array::elements;
+    }
+
+    /**
+     * The call's arguments, or null if they are not a JSON object (such calls are not remembered).
+     */
+    private static JsonNode parse(String toolInput) {
+        try {
+            JsonNode node = MAPPER.readTree(toolInput);
+            return node != null && node.isObject() ? node : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private String canonical(JsonNode arguments) {
+        ObjectNode normalized = MAPPER.createObjectNode();
+        arguments.fields().forEachRemaining(field -> {
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                return;
+            }
+            Path path = PATH_ARGUMENTS.contains(field.getKey()) && value.isTextual() ? resolve(value.asText()) : null;
+            normalized.set(field.getKey(), path != null ? normalized.textNode(path.toString()) : value);
+        });
+        try {
+            return MAPPER.writeValueAsString(MAPPER.treeToValue(normalized, Object.class));
+        } catch (JsonProcessingException e) {
+            return arguments.toString();
+        }
+    }
+
+    private record Entry(int step, String result, Set<Path> files, boolean search) {
+    }
+
+    private final class MemoizedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+
+        private MemoizedToolCallback(ToolCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            return ToolResultMemo.this.call(delegate, toolInput, toolContext);
+        }
+    }
+}
@@ -3,18 +3,55 @@ package com.simplecoder.service;
 import com.simplecoder.exception.SecurityViolationException;
 import com.simplecoder.exception.SystemException;
 import com.simplecoder.exception.ValidationException;
+import com.simplecoder.tool.AhoCorasick;
+import com.simplecoder.tool.AtomicFileWriter;
+import com.simplecoder.tool.ContentHash;
+import com.simplecoder.tool.DeadlineCharSequence;
+import com.simplecoder.tool.FileContentCache;
+import com.simplecoder.tool.FileLocks;
+import com.simplecoder.tool.GlobMatcher;
+import com.simplecoder.tool.IgnoreRules;
+import com.simplecoder.tool.LineOffsetIndex;
+import com.simplecoder.tool.LineRenderer;
+import com.simplecoder.tool.LiteralSearcher;
+import com.simplecoder.tool.ParallelFileScanner;
 import com.simplecoder.tool.PathValidator;
+import com.simplecoder.tool.RegexLiterals;
+import com.simplecoder.tool.RegexPrefilter;
+import com.simplecoder.tool.RepoTreeSnapshot;
+import com.simplecoder.tool.ResultCursor;
+import com.simplecoder.tool.SortedFileWalker;
+import com.simplecoder.tool.StreamingReplace;
+import com.simplecoder.tool.TrigramIndex;
+import com.simplecoder.tool.UnifiedDiff;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Unified service containing all coding agent tools as @Tool annotated methods.
@@ -28,46 +65,114 @@ import java.util.List;
 @Service
 public class ToolsService {
 
+    /**
+     * Tools that only read the repository; ParallelToolCallingManager may run calls to these concurrently.
+     */
+    public static final Set<String> READ_ONLY_TOOLS = Set.of("readFile", "readFiles", "listFiles", "searchText", "searchMultiple");
+
+    private static final long DEFAULT_REGEX_TIMEOUT_MS = 5000;
+    private static final long DEFAULT_SEARCH_TIMEOUT_MS = 30_000;
+    private static final int MAX_MULTI_PATTERNS = 64;
+    private static final int DEFAULT_BATCH_MAX_LINES = 1000;
+    private static final int MAX_BATCH_FILES = 20;
+    private static final int MAX_BATCH_EDITS = 200;
+    private static final long DEFAULT_STREAMING_THRESHOLD_BYTES = 8L * 1024 * 1024;
+
     private final PathValidator pathValidator;
+    private final TrigramIndex trigramIndex;
+    private final SortedFileWalker.Lister repoTree;
+    private final LineOffsetIndex lineOffsetIndex;
+    private final FileContentCache fileContentCache;
+    private final AtomicFileWriter fileWriter;
+    private final FileLocks fileLocks;
+    private final ParallelFileScanner parallelFileScanner;
     private final int maxFileLines;
+    private final int batchMaxLines;
     private final int maxListResults;
     private final int maxSearchResults;
+    private final long regexTimeoutMs;
+    private final long searchTimeoutMs;
+    private final long streamingThresholdBytes;
+
+    /**
+     * Creates a ToolsService without background search infrastructure or ignore rules (every search walks the
+     * whole tree).
+     * Intended for unit tests and embedding; the Spring context uses the fully wired constructor.
+     */
+    public ToolsService(PathValidator pathValidator, int maxFileLines, int maxListResults, int maxSearchResults) {
+        this(pathValidator, TrigramIndex.disabled(pathValidator), RepoTreeSnapshot.disabled(pathValidator),
+                IgnoreRules.none(pathValidator), new LineOffsetIndex(1024, 256), FileContentCache.disabled(),
+                new AtomicFileWriter(AtomicFileWriter.Durability.FILE), new FileLocks(64), ParallelFileScanner.sequential(),
+                maxFileLines, DEFAULT_BATCH_MAX_LINES, maxListResults, maxSearchResults, DEFAULT_REGEX_TIMEOUT_MS,
+                DEFAULT_SEARCH_TIMEOUT_MS, DEFAULT_STREAMING_THRESHOLD_BYTES);
+    }
 
+    @Autowired
     public ToolsService(
             PathValidator pathValidator,
+            TrigramIndex trigramIndex,
+            RepoTreeSnapshot repoTree,
+            IgnoreRules ignoreRules,
+            LineOffsetIndex lineOffsetIndex,
+            FileContentCache fileContentCache,
+            AtomicFileWriter fileWriter,
+            FileLocks fileLocks,
+            ParallelFileScanner parallelFileScanner,
             @Value("${simple-coder.max-file-lines}") int maxFileLines,
+            @Value("${simple-coder.read.batch-max-lines:" + DEFAULT_BATCH_MAX_LINES + "}") int batchMaxLines,
             @Value("${simple-coder.max-list-results}") int maxListResults,
-            @Value("${simple-coder.max-search-results}") int maxSearchResults) {
+            @Value("${simple-coder.max-search-results}") int maxSearchResults,
+            @Value("${simple-coder.search.regex-timeout-ms:" + DEFAULT_REGEX_TIMEOUT_MS + "}") long regexTimeoutMs,
+            @Value("${simple-coder.search.timeout-ms:" + DEFAULT_SEARCH_TIMEOUT_MS + "}") long searchTimeoutMs,
+            @Value("${simple-coder.write.streaming-threshold-bytes:" + DEFAULT_STREAMING_THRESHOLD_BYTES + "}") long streamingThresholdBytes) {
         this.pathValidator = pathValidator;
+        this.trigramIndex = trigramIndex;
+        this.repoTree = ignoreRules.filter(repoTree); // every walk skips ignored entries
+        this.lineOffsetIndex = lineOffsetIndex;
+        this.fileContentCache = fileContentCache;
+        this.fileWriter = fileWriter;
+        this.fileLocks = fileLocks;
+        this.parallelFileScanner = parallelFileScanner;
         this.maxFileLines = maxFileLines;
+        this.batchMaxLines = batchMaxLines;
         this.maxListResults = maxListResults;
         this.maxSearchResults = maxSearchResults;
-        log.info("ToolsService initialized with max-file-lines={}, max-list-results={}, max-search-results={}",
-                maxFileLines, maxListResults, maxSearchResults);
+        this.regexTimeoutMs = regexTimeoutMs;
+        this.searchTimeoutMs = searchTimeoutMs;
+        this.streamingThresholdBytes = streamingThresholdBytes;
+        log.info("ToolsService initialized with max-file-lines={}, batch-max-lines={}, max-list-results={}, max-search-results={}, regex-timeout-ms={}, search-timeout-ms={}, streaming-threshold-bytes={}",
+                maxFileLines, batchMaxLines, maxListResults, maxSearchResults, regexTimeoutMs, searchTimeoutMs, streamingThresholdBytes);
     }
 
-    @Tool(description = "Read file contents, optionally with line range (e.g., lines 10-50). Returns file content with line numbers.")
+    public String readFile(String filePath, Integer startLine, Integer endLine) {
+        return readFile(filePath, startLine, endLine, null);
+    }
+
+    @Tool(description = "Read file contents, optionally with line range (e.g., lines 10-50) or only the last N lines (fromEnd, e.g. for logs). Returns file content with line numbers.")
     public String readFile(
             @ToolParam(description = "File path relative to repository root") String filePath,
             @ToolParam(description = "Starting line number (optional, default 1)", required = false) Integer startLine,
-            @ToolParam(description = "Ending line number (optional, default end of file)", required = false) Integer endLine) {
+            @ToolParam(description = "Ending line number (optional, default end of file)", required = false) Integer endLine,
+            @ToolParam(description = "Read only the last N lines (optional, tail mode; cannot be combined with startLine/endLine)", required = false) Integer fromEnd) {
 
-        log.info("Tool invoked: readFile - filePath='{}', startLine={}, endLine={}", filePath, startLine, endLine);
+        log.info("Tool invoked: readFile - filePath='{}', startLine={}, endLine={}, fromEnd={}", filePath, startLine, endLine, fromEnd);
 
         try {
             Path file = pathValidator.validate(filePath);
             validateFileExists(file, filePath);
 
-            List<String> allLines = Files.readAllLines(file);
-            if (allLines.isEmpty()) {
-                return "Read " + filePath + " (empty file: 0 lines)";
+            if (fromEnd != null) {
+                return readFileTail(file, filePath, startLine, endLine, fromEnd);
             }
 
-            LineRange range = validateAndParseLineRange(startLine, endLine, allLines.size());
-            List<String> selectedLines = selectAndTruncateLines(allLines, range);
-            String formattedContent = formatLinesWithNumbers(selectedLines, range.start());
+            FileWindow window = readWindow(file, startLine, endLine, maxFileLines);
+            if (window.totalLines() == 0) {
+                return "Read " + filePath + " (empty file: 0 lines)";
+            }
 
-            return buildReadFileMessage(filePath, range, allLines.size(), selectedLines.size()) + "\n\n" + formattedContent;
+            String formattedContent = formatLinesWithNumbers(window.lines(), window.range().start());
+            return buildReadFileMessage(filePath, window.range(), window.totalLines(), window.lines().size())
+                    + hashNote(window.hash()) + "\n\n" + formattedContent;
 
         } catch (ValidationException e) {
             throw e; // re-throw validation exceptions
@@ -82,21 +187,84 @@ public class ToolsService {
         }
     }
 
-    @Tool(description = "List directory contents or files matching glob pattern (e.g., 'src/**/*.txt', '**/*.md'). Returns list of relative file paths.")
+    /**
+     * One entry of a readFiles batch.
+     */
+    public record FileRange(
+            @ToolParam(description = "File path relative to repository root") String path,
+            @ToolParam(description = "Starting line number (optional, default 1)", required = false) Integer startLine,
+            @ToolParam(description = "Ending line number (optional, default end of file)", required = false) Integer endLine) {
+    }
+
+    @Tool(description = "Read several files in one call, each optionally with a line range. Files are read concurrently and share one total line budget. Prefer this over consecutive readFile calls.")
+    public String readFiles(
+            @ToolParam(description = "Files to read, in the order they should appear in the result") List<FileRange> files) {
+
+        log.info("Tool invoked: readFiles - files={}", files);
+
+        try {
+            if (files == null || files.isEmpty()) {
+                throw new ValidationException("files", "files cannot be null or empty");
+            }
+            if (files.size() > MAX_BATCH_FILES) {
+                throw new ValidationException("files", "Too many files: " + files.size() + " (max " + MAX_BATCH_FILES + ")");
+            }
+            // Validate every path before reading any file, so a rejected path fails the whole call
+            List<Path> paths = new ArrayList<>(files.size());
+            for (FileRange entry : files) {
+                if (entry == null || entry.path() == null || entry.path().isBlank()) {
+                    throw new ValidationException("files", "Every entry needs a non-empty path");
+                }
+                paths.add(pathValidator.validate(entry.path()));
+            }
+
+            // Each read is capped at the whole budget; the budget is then handed out in request order
+            List<BatchRead> reads = new ArrayList<>(files.size());
+            parallelFileScanner.forEachOrdered(IntStream.range(0, files.size()).iterator(),
+                    i -> readBatchEntry(paths.get(i), files.get(i)), (read, hasMore) -> reads.add(read));
+
+            return formatBatch(files, reads);
+
+        } catch (ValidationException e) {
+            throw e; // re-throw validation exceptions
+        } catch (SecurityViolationException e) {
+            throw e; // re-throw security exceptions
+        } catch (Exception e) {
+            log.error("Unexpected error in readFiles", e);
+            throw new SystemException("Unexpected error in readFiles: " + e.getMessage(), e);
+        }
+    }
+
+    public String listFiles(String path) {
+        return listFiles(path, null);
+    }
+
+    @Tool(description = "List directory contents or files matching glob pattern (e.g., 'src/**/*.txt', '**/*.md'). Returns list of relative file paths. Long listings are paged: pass the returned cursor to get the next page.")
     public String listFiles(
-            @ToolParam(description = "Directory path or glob pattern (e.g., 'src/docs' or '**/*.txt')") String path) {
+            @ToolParam(description = "Directory path or glob pattern (e.g., 'src/docs' or '**/*.txt')") String path,
+            @ToolParam(description = "Cursor from a previous truncated listFiles call with the same path (optional)", required = false) String cursor) {
 
-        log.info("Tool invoked: listFiles - path='{}'", path);
+        log.info("Tool invoked: listFiles - path='{}', cursor={}", path, cursor);
 
         try {
             Path repoRoot = pathValidator.getRepoRoot();
             boolean isGlob = path.contains("*") || path.contains("?");
 
-            List<String> results = isGlob ? listWithGlob(path, repoRoot) : listDirectory(path, repoRoot);
-            List<String> truncatedResults = truncateResults(results, maxListResults);
+            String fingerprint = ResultCursor.fingerprint("listFiles", path);
+            ResultCursor resume = ResultCursor.decode(cursor, fingerprint);
+            Path resumeAfter = resume != null ? pathValidator.validate(resume.position()) : null;
+
+            ListPage page = isGlob ? listWithGlob(path, repoRoot, resumeAfter) : listDirectory(path, repoRoot, resumeAfter);
 
-            return formatListFilesMessage(path, truncatedResults.size(), results.size()) + "\n\n" + String.join("\n", truncatedResults);
+            String message = formatListFilesMessage(path, page.items().size(), page.hasMore());
+            if (page.hasMore()) {
+                String last = page.items().get(page.items().size() - 1);
+                message += nextPageHint(new ResultCursor(fingerprint, last, 0));
+            }
+            return message + "\n\n" + String.join("\n", page.items());
 
+        } catch (ValidationException e) {
+            throw e; // re-throw validation exceptions
         } catch (SecurityViolationException e) {
             throw e; // re-throw security exceptions
         } catch (IOException e) {
@@ -108,15 +276,20 @@ public class ToolsService {
         }
     }
 
-    @Tool(description = "Search for text pattern (literal or regex) in files within a directory. Returns matches with file:line:snippet format.")
+    public String searchText(String pattern, String searchPath, Boolean isRegex, Boolean caseSensitive) {
+        return searchText(pattern, searchPath, isRegex, caseSensitive, null);
+    }
+
+    @Tool(description = "Search for text pattern (literal or regex) in files within a directory. Returns matches with file:line:snippet format. Results are paged: pass the returned cursor to get the next page.")
     public String searchText(
             @ToolParam(description = "Text pattern to search for") String pattern,
             @ToolParam(description = "Directory or file path to search in") String searchPath,
             @ToolParam(description = "Whether pattern is regex (default false)", required = false) Boolean isRegex,
-            @ToolParam(description = "Whether search is case-sensitive (default false)", required = false) Boolean caseSensitive) {
+            @ToolParam(description = "Whether search is case-sensitive (default false)", required = false) Boolean caseSensitive,
+            @ToolParam(description = "Cursor from a previous truncated searchText call with the same parameters (optional)", required = false) String cursor) {
 
-        log.info("Tool invoked: searchText - pattern='{}', searchPath='{}', isRegex={}, caseSensitive={}",
-                pattern, searchPath, isRegex, caseSensitive);
+        log.info("Tool invoked: searchText - pattern='{}', searchPath='{}', isRegex={}, caseSensitive={}, cursor={}",
+                pattern, searchPath, isRegex, caseSensitive, cursor);
 
         try {
             // Validation: pattern cannot be empty
@@ -132,24 +305,55 @@ public class ToolsService {
                 return "Error: Path not found: " + searchPath;
             }
 
-            Path repoRoot = pathValidator.getRepoRoot();
-            java.util.regex.Pattern searchPattern = compilePattern(pattern, regex, caseSens);
+            String fingerprint = ResultCursor.fingerprint("searchText", pattern, searchPath, regex, caseSens);
+            ResultCursor resume = ResultCursor.decode(cursor, fingerprint);
 
-            List<String> results = new ArrayList<>();
+            Path repoRoot = pathValidator.getRepoRoot();
+            SearchQuery query = regex
+                    ? regexQuery(pattern, caseSens)
+                    : new SearchQuery(null, null, new LiteralSearcher(pattern, caseSens), List.of(List.of(pattern)), caseSens, 0);
+
+            long searchDeadline = System.nanoTime() + searchTimeoutMs * 1_000_000L;
+            SearchResults results = resume != null
+                    ? new SearchResults(pathValidator.validate(resume.position()), resume.line(), searchDeadline)
+                    : new SearchResults(null, 0, searchDeadline);
             boolean truncated = false;
-
             if (Files.isRegularFile(path)) {
-                truncated = searchInFile(path, searchPattern, repoRoot, results);
+                truncated = searchInFile(path, query, repoRoot, results);
             } else if (Files.isDirectory(path)) {
-                truncated = searchInDirectory(path, searchPattern, repoRoot, results);
+                truncated = searchInDirectory(path, query, repoRoot, results);
             }
 
-            String message = "Found " + results.size() + " matches for '" + pattern + "' in " + searchPath;
+            String message = "Found " + results.lines().size() + " matches for '" + pattern + "' in " + searchPath;
+            ResultCursor next = null;
             if (truncated) {
                 message += " [TRUNCATED: reached limit " + maxSearchResults + " before completing search]";
+                String last = repoRoot.relativize(results.lastFile).toString().replace('\\', '/');
+                next = new ResultCursor(fingerprint, last, results.lastLine);
+            } else if (results.stoppedAt != null) {
+                // Everything before stoppedAt/stoppedAfterLine was searched completely; the next page starts after it
+                String stopped = repoRoot.relativize(results.stoppedAt).toString().replace('\\', '/');
+                next = new ResultCursor(fingerprint, stopped, results.stoppedAfterLine);
+                if (results.skippedLine > 0) {
+                    // One line alone used up the regex budget: the pattern is too costly for it, so it is skipped
+                    String where = "line " + results.skippedLine + " of " + stopped;
+                    if (results.lines().isEmpty()) {
+                        throw new ValidationException("pattern", "Regex exceeded execution budget of " + regexTimeoutMs
+                                + " ms on " + where + " (possible catastrophic backtracking) - simplify the pattern,"
+                                + " or skip that line with cursor='" + next.encode() + "'");
+                    }
+                    message += " [TRUNCATED: regex execution budget of " + regexTimeoutMs + " ms exceeded on " + where
+                            + "; that line is skipped]";
+                } else {
+                    // The whole search ran out of time - no single line was too costly
+                    message += " [TRUNCATED: search time limit of " + searchTimeoutMs + " ms reached before completing search]";
+                }
+            }
+            if (next != null) {
+                message += nextPageHint(next);
             }
 
-            return message + "\n\n" + String.join("\n", results);
+            return message + "\n\n" + String.join("\n", results.lines());
 
         } catch (java.util.regex.PatternSyntaxException e) {
             throw new ValidationException("pattern", "Invalid regex pattern: " + e.getMessage());
@@ -166,11 +370,71 @@ public class ToolsService {
         }
     }
 
-    @Tool(description = "Replace exact string in a file. Old string must appear exactly once for safety.")
+    @Tool(description = "Search for several literal strings in one pass over the files (much cheaper than calling searchText repeatedly on the same directory). Returns matches grouped by pattern, each in file:line:snippet format.")
+    public String searchMultiple(
+            @ToolParam(description = "Literal strings to search for (not regex)") List<String> patterns,
+            @ToolParam(description = "Directory or file path to search in") String searchPath,
+            @ToolParam(description = "Whether search is case-sensitive (default false)", required = false) Boolean caseSensitive) {
+
+        log.info("Tool invoked: searchMultiple - patterns={}, searchPath='{}', caseSensitive={}", patterns, searchPath, caseSensitive);
+
+        try {
+            // Validation: at least one pattern, none empty
+            if (patterns == null || patterns.isEmpty()) {
+                throw new ValidationException("patterns", "Patterns list cannot be null or empty");
+            }
+            for (String pattern : patterns) {
+                if (pattern == null || pattern.trim().isEmpty()) {
+                    throw new ValidationException("patterns", "Search patterns cannot be null or empty");
+                }
+            }
+            List<String> distinct = patterns.stream().distinct().toList();
+            if (distinct.size() > MAX_MULTI_PATTERNS) {
+                throw new ValidationException("patterns", "At most " + MAX_MULTI_PATTERNS + " patterns per call (got " + distinct.size() + ")");
+            }
+
+            boolean caseSens = caseSensitive != null ? caseSensitive : false;
+
+            Path path = pathValidator.validate(searchPath);
+            if (!Files.exists(path)) {
+                return "Error: Path not found: " + searchPath;
+            }
+
+            Path repoRoot = pathValidator.getRepoRoot();
+            AhoCorasick automaton = new AhoCorasick(distinct, caseSens);
+            MultiMatches results = MultiMatches.empty(distinct.size());
+
+            if (Files.isRegularFile(path)) {
+                appendMultiMatches(scanFileMulti(path, automaton, repoRoot), results, false);
+            } else if (Files.isDirectory(path)) {
+                searchMultipleInDirectory(path, automaton, distinct, caseSens, repoRoot, results);
+            }
+
+            return formatMultiResults(distinct, results, searchPath);
+
+        } catch (ValidationException e) {
+            throw e; // re-throw validation exceptions
+        } catch (SecurityViolationException e) {
+            throw e; // re-throw security exceptions
+        } catch (IOException e) {
+            log.error("IO error during multi-pattern search: {}", e.getMessage(), e);
+            throw new SystemException("Search failed due to IO error: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Unexpected error in searchMultiple", e);
+            throw new SystemException("Unexpected error in searchMultiple: " + e.getMessage(), e);
+        }
+    }
+
+    public String replaceText(String filePath, String oldString, String newString) {
+        return replaceText(filePath, oldString, newString, null);
+    }
+
+    @Tool(description = "Replace exact string in a file. Old string must appear exactly once for safety. Pass the hash reported by readFile as expectedHash to reject the edit if the file changed since you read it.")
     public String replaceText(
             @ToolParam(description = "File path relative to repository root") String filePath,
             @ToolParam(description = "Old string to replace") String oldString,
-            @ToolParam(description = "New string to replace with") String newString) {
+            @ToolParam(description = "New string to replace with") String newString,
+            @ToolParam(description = "Hash of the file as reported by readFile (optional; the edit fails if the file has changed since)", required = false) String expectedHash) {
 
         log.info("Tool invoked: replaceText - filePath='{}', oldStringLength={}, newStringLength={}",
                 filePath, oldString != null ? oldString.length() : 0, newString != null ? newString.length() : 0);
@@ -198,33 +462,149 @@ public class ToolsService {
                 throw new ValidationException("oldString", "Old string and new string are identical - no replacement needed");
             }
 
-            String content = Files.readString(file);
-            int occurrences = countOccurrences(content, oldString);
+            // Read, check and write under the file's lock so concurrent edits cannot overwrite each other
+            try (FileLocks.Held lock = fileLocks.lock(file)) {
+                return replaceLocked(file, filePath, oldString, newString, expectedHash);
+            }
 
-            if (occurrences == 0) {
-                throw new ValidationException("oldString", "Old string '" + truncate(oldString, 50) + "' not found in file");
+        } catch (ValidationException e) {
+            throw e; // re-throw validation exceptions
+        } catch (SecurityViolationException e) {
+            throw e; // re-throw security exceptions
+        } catch (IOException e) {
+            log.error("IO error during replacement: {}", e.getMessage(), e);
+            throw new SystemException("Failed to replace text: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Unexpected error in replaceText", e);
+            throw new SystemException("Unexpected error in replaceText: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One replacement of an applyEdits batch.
+     */
+    public record TextEdit(
+            @ToolParam(description = "File path relative to repository root") String filePath,
+            @ToolParam(description = "Old string to replace (must appear exactly once in the file)") String oldString,
+            @ToolParam(description = "New string to replace with") String newString,
+            @ToolParam(description = "Hash of the file as reported by readFile (optional; the batch fails if the file has changed since)", required = false) String expectedHash) {
+
+        public TextEdit(String filePath, String oldString, String newString) {
+            this(filePath, oldString, newString, null);
+        }
+    }
+
+    @Tool(description = "Apply many exact-string replacements, in one or more files, in one call. Each old string must appear exactly once in its file and edits in the same file must not overlap. All-or-nothing: if any edit is invalid no file is changed.")
+    public String applyEdits(
+            @ToolParam(description = "Replacements to apply; several may target the same file") List<TextEdit> edits) {
+
+        log.info("Tool invoked: applyEdits - edits={}", edits != null ? edits.size() : 0);
+
+        try {
+            if (edits == null || edits.isEmpty()) {
+                throw new ValidationException("edits", "edits cannot be null or empty");
+            }
+            if (edits.size() > MAX_BATCH_EDITS) {
+                throw new ValidationException("edits", "Too many edits: " + edits.size() + " (max " + MAX_BATCH_EDITS + ")");
             }
 
-            if (occurrences > 1) {
-                throw new ValidationException("oldString", "Old string '" + truncate(oldString, 50) + "' appears " + occurrences + " times (must be unique for safety)");
+            // Plan every file in memory first; nothing is written unless all edits are valid
+            Map<Path, List<Integer>> editsByFile = new LinkedHashMap<>();
+            for (int i = 0; i < edits.size(); i++) {
+                TextEdit edit = edits.get(i);
+                validateEdit(edit, i);
+                Path file = pathValidator.validate(edit.filePath());
+                validateEditableFile(file, edit.filePath());
+                editsByFile.computeIfAbsent(file, f -> new ArrayList<>()).add(i);
+            }
+            List<PlannedWrite> plan = new ArrayList<>(editsByFile.size());
+            try (FileLocks.Held lock = fileLocks.lockAll(editsByFile.keySet())) {
+                for (Map.Entry<Path, List<Integer>> entry : editsByFile.entrySet()) {
+                    plan.add(planEdits(entry.getKey(), edits, entry.getValue()));
+                }
+                writeAll(plan);
             }
 
-            String newContent = content.replace(oldString, newString);
-            Files.writeString(file, newContent);
+            log.info("Applied {} edits to {} files", edits.size(), plan.size());
+            StringBuilder message = new StringBuilder("Applied ").append(edits.size()).append(" edits to ")
+                    .append(plan.size()).append(plan.size() == 1 ? " file:" : " files:");
+            for (PlannedWrite write : plan) {
+                message.append("\n- ").append(write.displayPath()).append(" (").append(write.changes()).append(" edits)")
+                        .append(hashNote(ContentHash.of(write.updated())));
+            }
+            return message.toString();
 
-            log.info("Successful replacement in {}", file);
-            return "Replaced '" + truncate(oldString, 30) + "' with '" + truncate(newString, 30) + "' in " + filePath;
+        } catch (ValidationException e) {
+            throw e; // re-throw validation exceptions
+        } catch (SecurityViolationException e) {
+            throw e; // re-throw security exceptions
+        } catch (IOException e) {
+            log.error("IO error applying edits: {}", e.getMessage(), e);
+            throw new SystemException("Failed to apply edits: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Unexpected error in applyEdits", e);
+            throw new SystemException("Unexpected error in applyEdits: " + e.getMessage(), e);
+        }
+    }
+
+    @Tool(description = "Apply a unified diff (diff -u / git diff format) covering one or more files. Hunks are located by their context lines, so small line-number drift is tolerated. Files can be created (--- /dev/null) but not deleted or renamed. All-or-nothing: if any hunk does not match no file is changed.")
+    public String applyPatch(
+            @ToolParam(description = "Unified diff text with '--- a/path' / '+++ b/path' headers and @@ hunks; paths are relative to repository root") String patch) {
+
+        log.info("Tool invoked: applyPatch - length={}", patch != null ? patch.length() : 0);
+
+        try {
+            if (patch == null || patch.isBlank()) {
+                throw new ValidationException("patch", "patch cannot be null or empty");
+            }
+            List<UnifiedDiff.FilePatch> filePatches;
+            try {
+                filePatches = UnifiedDiff.parse(patch);
+            } catch (UnifiedDiff.PatchException e) {
+                throw new ValidationException("patch", "Malformed patch: " + e.getMessage());
+            }
+
+            Map<Path, UnifiedDiff.FilePatch> patchesByFile = new LinkedHashMap<>();
+            for (UnifiedDiff.FilePatch filePatch : filePatches) {
+                validateFilePatch(filePatch);
+                Path file = pathValidator.validate(filePatch.path());
+                if (patchesByFile.putIfAbsent(file, filePatch) != null) {
+                    throw new ValidationException("patch", "File " + filePatch.path() + " appears more than once in the patch");
+                }
+            }
+            List<PlannedWrite> plan = new ArrayList<>(patchesByFile.size());
+            List<String> notes = new ArrayList<>();
+            int hunks = 0;
+            try (FileLocks.Held lock = fileLocks.lockAll(patchesByFile.keySet())) {
+                for (Map.Entry<Path, UnifiedDiff.FilePatch> entry : patchesByFile.entrySet()) {
+                    plan.add(planPatch(entry.getKey(), entry.getValue(), notes));
+                    hunks += entry.getValue().hunks().size();
+                }
+                writeAll(plan);
+            }
+
+            log.info("Applied patch with {} hunks to {} files", hunks, plan.size());
+            StringBuilder message = new StringBuilder("Applied patch (").append(hunks).append(hunks == 1 ? " hunk" : " hunks")
+                    .append(") to ").append(plan.size()).append(plan.size() == 1 ? " file:" : " files:");
+            for (PlannedWrite write : plan) {
+                message.append("\n- ").append(write.displayPath()).append(write.original() == null ? " (created)" : "")
+                        .append(hashNote(ContentHash.of(write.updated())));
+            }
+            for (String note : notes) {
+                message.append("\nNote: ").append(note);
+            }
+            return message.toString();
 
         } catch (ValidationException e) {
             throw e; // re-throw validation exceptions
         } catch (SecurityViolationException e) {
             throw e; // re-throw security exceptions
         } catch (IOException e) {
-            log.error("IO error during replacement: {}", e.getMessage(), e);
-            throw new SystemException("Failed to replace text: " + e.getMessage(), e);
+            log.error("IO error applying patch: {}", e.getMessage(), e);
+            throw new SystemException("Failed to apply patch: " + e.getMessage(), e);
         } catch (Exception e) {
-            log.error("Unexpected error in replaceText", e);
-            throw new SystemException("Unexpected error in replaceText: " + e.getMessage(), e);
+            log.error("Unexpected error in applyPatch", e);
+            throw new SystemException("Unexpected error in applyPatch: " + e.getMessage(), e);
         }
     }
 
@@ -233,6 +613,36 @@ public class ToolsService {
     private record LineRange(int start, int end, boolean wasTruncated) {
     }
 
+    /**
+     * Lines selected from one file; {@code range} is null for an empty file. {@code hash} is the
+     * {@link ContentHash} of the whole file when its content was in memory anyway (cacheable size), else null.
+     */
+    private record FileWindow(LineRange range, int totalLines, List<String> lines, String hash) {
+    }
+
+    /**
+     * Reads at most {@code maxLines} lines of the requested range. Only the window is decoded (see
+     * LineOffsetIndex); small files come from the shared content cache.
+     */
+    private FileWindow readWindow(Path file, Integer startLine, Integer endLine, int maxLines) throws IOException {
+        FileContentCache.Content content = fileContentCache.read(file);
+        int totalLines = lineOffsetIndex.lineCount(file, content);
+        if (totalLines == 0) {
+            return new FileWindow(null, 0, List.of(), null);
+        }
+        LineRange range = validateAndParseLineRange(startLine, endLine, totalLines);
+        int count = Math.min(range.end() - range.start() + 1, maxLines);
+        return new FileWindow(range, totalLines, lineOffsetIndex.readLines(file, content, range.start(), count),
+                content != null ? ContentHash.of(content.bytes()) : null);
+    }
+
+    /**
+     * Header suffix telling the model which hash to pass as expectedHash when editing the file.
+     */
+    private static String hashNote(String hash) {
+        return hash != null ? " [hash: " + hash + "]" : "";
+    }
+
     private void validateFileExists(Path file, String filePath) throws IOException {
         if (!Files.exists(file)) {
             throw new IOException("File not found: " + filePath);
@@ -259,26 +669,45 @@ public class ToolsService {
         return new LineRange(start, end, false);
     }
 
-    private List<String> selectAndTruncateLines(List<String> allLines, LineRange range) {
-        List<String> selected = allLines.subList(range.start() - 1, range.end());
-        if (selected.size() > maxFileLines) {
-            return selected.subList(0, maxFileLines);
+    /**
+     * Tail mode: scans backward from the end of the file (see LineOffsetIndex#readTail), so the whole file is
+     * never read. Lines get absolute numbers when the line count is already known, otherwise they are numbered
+     * from the end (-1 is the last line).
+     */
+    private String readFileTail(Path file, String filePath, Integer startLine, Integer endLine, int fromEnd)
+            throws IOException {
+        if (startLine != null || endLine != null) {
+            throw new ValidationException("fromEnd", "fromEnd cannot be combined with startLine/endLine");
+        }
+        if (fromEnd < 1) {
+            throw new ValidationException("fromEnd", "fromEnd must be >= 1");
         }
-        return selected;
-    }
 
-    private String formatLinesWithNumbers(List<String> lines, int startLineNum) {
-        StringBuilder content = new StringBuilder();
-        int lineNumWidth = String.valueOf(startLineNum + lines.size() - 1).length();
+        LineOffsetIndex.Tail tail = lineOffsetIndex.readTail(file, Math.min(fromEnd, maxFileLines));
+        List<String> lines = tail.lines();
+        if (lines.isEmpty()) {
+            return "Read " + filePath + " (empty file: 0 lines)";
+        }
 
-        for (int i = 0; i < lines.size(); i++) {
-            int lineNum = startLineNum + i;
-            content.append(String.format("%" + lineNumWidth + "d | %s", lineNum, lines.get(i)));
-            if (i < lines.size() - 1) {
-                content.append("\n");
-            }
+        String message;
+        String formattedContent;
+        if (tail.totalLines() >= 0) {
+            int first = tail.totalLines() - lines.size() + 1;
+            message = "Read " + filePath + " (last " + lines.size() + " lines: " + first + "-" + tail.totalLines()
+                    + " of " + tail.totalLines() + " total)";
+            formattedContent = formatLinesWithNumbers(lines, first);
+        } else {
+            message = "Read " + filePath + " (last " + lines.size() + " lines, numbered from the end: -1 is the last line)";
+            formattedContent = formatLinesWithNumbers(lines, -lines.size());
+        }
+        if (fromEnd > lines.size() && tail.hasEarlierLines()) {
+            message += " [TRUNCATED: showing last " + maxFileLines + " lines, earlier lines available]";
         }
-        return content.toString();
+        return message + "\n\n" + formattedContent;
+    }
+
+    private String formatLinesWithNumbers(List<String> lines, int startLineNum) {
+        return LineRenderer.numberedLines(lines, startLineNum);
     }
 
     private String buildReadFileMessage(String filePath, LineRange range, int totalLines, int selectedSize) {
@@ -292,9 +721,350 @@ public class ToolsService {
         return message;
     }
 
+    // Helper methods for readFiles
+
+    /**
+     * Outcome of one readFiles entry: the window read, or why it could not be read.
+     */
+    private record BatchRead(FileWindow window, String error) {
+    }
+
+    private BatchRead readBatchEntry(Path file, FileRange entry) {
+        try {
+            validateFileExists(file, entry.path());
+            return new BatchRead(readWindow(file, entry.startLine(), entry.endLine(), batchMaxLines), null);
+        } catch (ValidationException | IOException e) {
+            return new BatchRead(null, e.getMessage()); // reported inline; the other files are still returned
+        }
+    }
+
+    /**
+     * Concatenates the per-file sections in request order, giving each file what is left of the line budget.
+     */
+    private String formatBatch(List<FileRange> files, List<BatchRead> reads) {
+        StringBuilder sections = new StringBuilder();
+        int remaining = batchMaxLines;
+        int failed = 0;
+        boolean truncated = false;
+
+        for (int i = 0; i < files.size(); i++) {
+            String path = files.get(i).path();
+            BatchRead read = reads.get(i);
+            sections.append("\n\n--- ").append(path);
+            if (read.error() != null) {
+                failed++;
+                sections.append(" [ERROR: ").append(read.error()).append(']');
+                continue;
+            }
+            FileWindow window = read.window();
+            if (window.totalLines() == 0) {
+                sections.append(" (empty file: 0 lines)");
+                continue;
+            }
+
+            LineRange range = window.range();
+            int requested = range.end() - range.start() + 1;
+            int shown = Math.min(window.lines().size(), remaining);
+            remaining -= shown;
+            if (shown == 0) {
+                truncated = true;
+                sections.append(" [SKIPPED: batch line budget of ").append(batchMaxLines).append(" lines exhausted]");
+                continue;
+            }
+            sections.append(" (lines ").append(range.start()).append('-').append(range.start() + shown - 1)
+                    .append(" of ").append(window.totalLines()).append(" total)").append(hashNote(window.hash()));
+            if (shown < requested) {
+                truncated = true;
+                sections.append(" [TRUNCATED: batch line budget exhausted, ").append(requested - shown)
+                        .append(" more available]");
+            }
+            sections.append('\n');
+            LineRenderer.appendNumberedLines(sections, window.lines().subList(0, shown), range.start());
+        }
+
+        String message = "Read " + (files.size() - failed) + " of " + files.size() + " files ("
+                + (batchMaxLines - remaining) + " lines, budget " + batchMaxLines + ")";
+        if (truncated) {
+            message += " [TRUNCATED: read the remaining ranges with readFile or a smaller batch]";
+        }
+        return message + sections;
+    }
+
+    // Helper methods for replaceText, applyEdits and applyPatch
+
+    /**
+     * replaceText's read-check-write, called with the file's lock held.
+     */
+    private String replaceLocked(Path file, String filePath, String oldString, String newString, String expectedHash)
+            throws IOException {
+        if (Files.size(file) > streamingThresholdBytes) {
+            return replaceStreaming(file, filePath, oldString, newString, expectedHash);
+        }
+        byte[] original = Files.readAllBytes(file);
+        checkExpectedHash(expectedHash, original, filePath);
+        String content = decodeUtf8(original);
+        int occurrences = countOccurrences(content, oldString);
+
+        if (occurrences == 0) {
+            throw new ValidationException("oldString", "Old string '" + truncate(oldString, 50) + "' not found in file");
+        }
+
+        if (occurrences > 1) {
+            throw new ValidationException("oldString", "Old string '" + truncate(oldString, 50) + "' appears " + occurrences + " times (must be unique for safety)");
+        }
+
+        byte[] updated = content.replace(oldString, newString).getBytes(StandardCharsets.UTF_8);
+        fileWriter.write(file, updated); // temp file + atomic rename
+        trigramIndex.invalidate(file);
+        fileContentCache.invalidate(file);
+
+        log.info("Successful replacement in {}", file);
+        return "Replaced '" + truncate(oldString, 30) + "' with '" + truncate(newString, 30) + "' in " + filePath
+                + hashNote(ContentHash.of(updated));
+    }
+
+    /**
+     * replaceText for large files: a mapped byte search and a transferTo rewrite instead of holding the file as
+     * a String (and its replaced copy) on the heap. No new hash is reported, as readFile reports none for files
+     * this size.
+     */
+    private String replaceStreaming(Path file, String filePath, String oldString, String newString, String expectedHash)
+            throws IOException {
+        byte[] oldBytes = oldString.getBytes(StandardCharsets.UTF_8);
+        boolean checkHash = expectedHash != null && !expectedHash.isBlank();
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            StreamingReplace.Match match = StreamingReplace.find(source, oldBytes, checkHash);
+            if (checkHash) {
+                checkExpectedHash(expectedHash, match.hash(), filePath);
+            }
+            if (match.count() == 0) {
+                throw new ValidationException("oldString", "Old string '" + truncate(oldString, 50) + "' not found in file");
+            }
+            if (match.count() > 1) {
+                throw new ValidationException("oldString", "Old string '" + truncate(oldString, 50) + "' appears " + match.count() + " times (must be unique for safety)");
+            }
+
+            byte[] newBytes = newString.getBytes(StandardCharsets.UTF_8);
+            fileWriter.write(file, target -> StreamingReplace.write(source, match.position(), oldBytes.length, newBytes, target));
+        }
+        trigramIndex.invalidate(file);
+        fileContentCache.invalidate(file);
+
+        log.info("Successful streaming replacement in {}", file);
+        return "Replaced '" + truncate(oldString, 30) + "' with '" + truncate(newString, 30) + "' in " + filePath;
+    }
+
+    /**
+     * New content for one file, with the bytes it replaces (kept to roll back a partially written batch; null for
+     * a file the batch creates).
+     */
+    private record PlannedWrite(Path file, String displayPath, byte[] original, byte[] updated, int changes) {
+    }
+
+    /**
+     * Position of one edit's old string in the file content.
+     */
+    private record EditMatch(int index, int start, int end) {
+    }
+
+    private void validateEdit(TextEdit edit, int index) {
+        String label = "Edit " + (index + 1);
+        if (edit == null || edit.filePath() == null || edit.filePath().isBlank()) {
+            throw new ValidationException("edits", label + ": filePath cannot be null or empty");
+        }
+        if (edit.oldString() == null || edit.oldString().isEmpty()) {
+            throw new ValidationException("edits", label + " (" + edit.filePath() + "): old string cannot be null or empty");
+        }
+        if (edit.newString() == null) {
+            throw new ValidationException("edits", label + " (" + edit.filePath() + "): new string cannot be null");
+        }
+        if (edit.oldString().equals(edit.newString())) {
+            throw new ValidationException("edits", label + " (" + edit.filePath() + "): old string and new string are identical");
+        }
+    }
+
+    private void validateEditableFile(Path file, String filePath) {
+        if (!Files.exists(file)) {
+            throw new ValidationException("filePath", "File not found: " + filePath);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ValidationException("filePath", "Path is not a regular file: " + filePath);
+        }
+    }
+
+    /**
+     * Reads a file once, locates every edit's old string (same uniqueness rule as replaceText), rejects
+     * overlapping edits and builds the new content in a single pass over the sorted matches.
+     */
+    private PlannedWrite planEdits(Path file, List<TextEdit> edits, List<Integer> indexes) throws IOException {
+        byte[] original = Files.readAllBytes(file);
+        String displayPath = edits.get(indexes.get(0)).filePath();
+        for (int i : indexes) {
+            checkExpectedHash(edits.get(i).expectedHash(), original, displayPath);
+        }
+        String content = decodeUtf8(original);
+
+        List<EditMatch> matches = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            String oldString = edits.get(i).oldString();
+            int start = content.indexOf(oldString);
+            if (start < 0) {
+                throw new ValidationException("edits", "Edit " + (i + 1) + " (" + displayPath + "): old string '"
+                        + truncate(oldString, 50) + "' not found in file");
+            }
+            if (content.indexOf(oldString, start + oldString.length()) >= 0) {
+                throw new ValidationException("edits", "Edit " + (i + 1) + " (" + displayPath + "): old string '"
+                        + truncate(oldString, 50) + "' appears " + countOccurrences(content, oldString)
+                        + " times (must be unique for safety)");
+            }
+            matches.add(new EditMatch(i, start, start + oldString.length()));
+        }
+        matches.sort(Comparator.comparingInt(EditMatch::start));
+
+        int newLength = content.length();
+        for (int m = 0; m < matches.size(); m++) {
+            EditMatch match = matches.get(m);
+            if (m > 0 && matches.get(m - 1).end() > match.start()) {
+                throw new ValidationException("edits", "Edits " + (matches.get(m - 1).index() + 1) + " and "
+                        + (match.index() + 1) + " overlap in " + displayPath);
+            }
+            newLength += edits.get(match.index()).newString().length() - (match.end() - match.start());
+        }
+
+        StringBuilder updated = new StringBuilder(newLength);
+        int copied = 0;
+        for (EditMatch match : matches) {
+            updated.append(content, copied, match.start()).append(edits.get(match.index()).newString());
+            copied = match.end();
+        }
+        updated.append(content, copied, content.length());
+        return new PlannedWrite(file, displayPath, original, updated.toString().getBytes(StandardCharsets.UTF_8),
+                matches.size());
+    }
+
+    private void validateFilePatch(UnifiedDiff.FilePatch filePatch) {
+        if (filePatch.newPath() == null) {
+            throw new ValidationException("patch", "Deleting files is not supported (" + filePatch.oldPath() + ")");
+        }
+        if (filePatch.oldPath() != null && !filePatch.oldPath().equals(filePatch.newPath())) {
+            throw new ValidationException("patch", "Renaming files is not supported (" + filePatch.oldPath()
+                    + " -> " + filePatch.newPath() + ")");
+        }
+    }
+
+    /**
+     * Applies one file's hunks in memory. Hunks that only matched at an offset or with trailing whitespace
+     * ignored are reported in {@code notes}, so the model can check the result.
+     */
+    private PlannedWrite planPatch(Path file, UnifiedDiff.FilePatch filePatch, List<String> notes) throws IOException {
+        String displayPath = filePatch.path();
+        byte[] original = null;
+        String content = "";
+        if (filePatch.oldPath() == null) {
+            if (Files.exists(file)) {
+                throw new ValidationException("patch", "Cannot create " + displayPath + ": file already exists");
+            }
+        } else {
+            validateEditableFile(file, displayPath);
+            original = Files.readAllBytes(file);
+            content = decodeUtf8(original);
+        }
+
+        UnifiedDiff.Applied applied;
+        try {
+            applied = UnifiedDiff.apply(content, filePatch.hunks());
+        } catch (UnifiedDiff.PatchException e) {
+            throw new ValidationException("patch", displayPath + ": " + e.getMessage()
+                    + " - read the file again and regenerate the diff");
+        }
+        for (int h = 0; h < applied.hunks().size(); h++) {
+            UnifiedDiff.HunkResult result = applied.hunks().get(h);
+            if (result.offset() != 0 || result.ignoredWhitespace()) {
+                notes.add(displayPath + " hunk " + (h + 1) + " applied"
+                        + (result.offset() != 0 ? " at offset " + result.offset() + " lines" : "")
+                        + (result.ignoredWhitespace() ? " ignoring trailing whitespace" : ""));
+            }
+        }
+        return new PlannedWrite(file, displayPath, original, applied.content().getBytes(StandardCharsets.UTF_8),
+                filePatch.hunks().size());
+    }
+
+    /**
+     * Rejects an edit based on a stale read. Comparing hashes of bytes already in memory is far cheaper than
+     * letting the model overwrite a concurrent change.
+     */
+    private static void checkExpectedHash(String expectedHash, byte[] content, String filePath) {
+        if (expectedHash == null || expectedHash.isBlank()) {
+            return;
+        }
+        checkExpectedHash(expectedHash, ContentHash.of(content), filePath);
+    }
+
+    private static void checkExpectedHash(String expectedHash, String actual, String filePath) {
+        if (!actual.equalsIgnoreCase(expectedHash.strip())) {
+            throw new ValidationException("expectedHash", "File " + filePath + " has changed since it was read (expected hash "
+                    + expectedHash.strip() + ", current " + actual + ") - read it again and redo the edit");
+        }
+    }
+
+    /**
+     * Strict UTF-8 decoding, failing on malformed input like {@code Files.readString}.
+     */
+    private static String decodeUtf8(byte[] bytes) throws CharacterCodingException {
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+    }
+
+    /**
+     * Writes every planned file atomically. If one write fails, files already written are restored to their
+     * original bytes (or deleted, if the batch created them), so the batch stays all-or-nothing.
+     */
+    private void writeAll(List<PlannedWrite> plan) throws IOException {
+        List<PlannedWrite> written = new ArrayList<>(plan.size());
+        try {
+            for (PlannedWrite write : plan) {
+                if (write.original() == null) {
+                    // Validated while planning; check again right before creating anything on the way to it
+                    pathValidator.recheck(write.file());
+                    Files.createDirectories(write.file().getParent());
+                    pathValidator.recheck(write.file());
+                }
+                fileWriter.write(write.file(), write.updated());
+                written.add(write);
+                trigramIndex.invalidate(write.file());
+                fileContentCache.invalidate(write.file());
+            }
+        } catch (IOException | RuntimeException e) {
+            for (PlannedWrite write : written) {
+                try {
+                    if (write.original() == null) {
+                        Files.deleteIfExists(write.file());
+                    } else {
+                        fileWriter.write(write.file(), write.original());
+                    }
+                } catch (IOException restoreFailure) {
+                    e.addSuppressed(restoreFailure);
+                    log.error("Failed to restore {} after a failed batch write", write.file(), restoreFailure);
+                }
+                trigramIndex.invalidate(write.file());
+                fileContentCache.invalidate(write.file());
+            }
+            throw e;
+        }
+    }
+
     // Helper methods for listFiles
 
-    private List<String> listDirectory(String path, Path repoRoot) throws IOException {
+    /**
+     * One page of listFiles output; {@code hasMore} is set when entries remain after the last item.
+     */
+    private record ListPage(List<String> items, boolean hasMore) {
+    }
+
+    private String nextPageHint(ResultCursor next) {
+        return " [NEXT PAGE: call again with cursor='" + next.encode() + "']";
+    }
+
+    private ListPage listDirectory(String path, Path repoRoot, Path resumeAfter) throws IOException {
         Path dirPath = pathValidator.validate(path);
         if (!Files.exists(dirPath)) {
             throw new IOException("Directory not found: " + path);
@@ -303,27 +1073,22 @@ public class ToolsService {
             throw new IOException("Path is not a directory: " + path);
         }
 
-        List<String> results = new ArrayList<>();
-        try (var stream = Files.list(dirPath)) {
-            stream.forEach(p -> {
-                String relativePath = repoRoot.relativize(p).toString().replace('\\', '/');
-                results.add(relativePath);
-            });
-        }
-        results.sort(String::compareTo);
-        return results;
-    }
+        // A single directory is listed in full (it comes sorted); resuming only skips the formatting
+        List<Path> entries = repoTree.list(dirPath).stream()
+                .map(SortedFileWalker.Entry::path)
+                .filter(p -> resumeAfter == null || SortedFileWalker.ORDER.compare(p, resumeAfter) > 0)
+                .toList();
 
-    private List<String> truncateResults(List<String> results, int maxResults) {
-        if (results.size() > maxResults) {
-            return results.subList(0, maxResults);
+        List<String> results = new ArrayList<>();
+        for (Path entry : entries.subList(0, Math.min(entries.size(), maxListResults))) {
+            results.add(repoRoot.relativize(entry).toString().replace('\\', '/'));
         }
-        return results;
+        return new ListPage(results, entries.size() > maxListResults);
     }
 
-    private String formatListFilesMessage(String path, int displayedCount, int totalCount) {
+    private String formatListFilesMessage(String path, int displayedCount, boolean hasMore) {
         String message = "Found " + displayedCount + " items matching '" + path + "'";
-        if (displayedCount < totalCount) {
+        if (hasMore) {
             message += " [TRUNCATED: first " + maxListResults + " items]";
         }
         return message;
@@ -331,45 +1096,46 @@ public class ToolsService {
 
     // Helper methods for glob pattern matching
 
-    private List<String> listWithGlob(String pattern, Path repoRoot) throws IOException {
-        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    /**
+     * Lists glob matches in {@link SortedFileWalker} order (a directory precedes its contents), stopping as soon
+     * as one page is full. With {@code resumeAfter} set, the walk restarts just after that entry. Directories
+     * whose subtree cannot match the pattern are not entered (see {@link GlobMatcher#mayMatchBelow(String)}).
+     */
+    private ListPage listWithGlob(String pattern, Path repoRoot, Path resumeAfter) throws IOException {
+        GlobMatcher matcher = GlobMatcher.compile(pattern);
         List<String> results = new ArrayList<>();
 
         Path startPath = extractBasePath(pattern);
         Path resolvedStart = pathValidator.validate(startPath.toString());
+        if (!Files.exists(resolvedStart)) {
+            throw new NoSuchFileException(resolvedStart.toString());
+        }
 
-        Files.walkFileTree(resolvedStart, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                Path relativePath = repoRoot.relativize(file);
-                String relativeStr = relativePath.toString().replace('\\', '/');
-
-                if (matcher.matches(Paths.get(relativeStr))) {
-                    results.add(relativeStr);
-                }
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                Path relativePath = repoRoot.relativize(dir);
-                String relativeStr = relativePath.toString().replace('\\', '/');
+        // The start entry sorts first, so it can only belong to the first page
+        if (resumeAfter == null && matchesGlob(matcher, resolvedStart, repoRoot)) {
+            results.add(repoRoot.relativize(resolvedStart).toString().replace('\\', '/'));
+        }
+        if (!Files.isDirectory(resolvedStart)) {
+            return new ListPage(results, false);
+        }
 
-                if (!relativeStr.isEmpty() && matcher.matches(Paths.get(relativeStr))) {
-                    results.add(relativeStr);
+        Iterator<SortedFileWalker.Entry> walk = new SortedFileWalker(repoTree, resolvedStart, resumeAfter, false,
+                dir -> matcher.mayMatchBelow(repoRoot.relativize(dir).toString().replace('\\', '/')));
+        while (walk.hasNext()) {
+            Path entry = walk.next().path();
+            if (matchesGlob(matcher, entry, repoRoot)) {
+                if (results.size() == maxListResults) {
+                    return new ListPage(results, true);
                 }
-                return FileVisitResult.CONTINUE;
+                results.add(repoRoot.relativize(entry).toString().replace('\\', '/'));
             }
+        }
+        return new ListPage(results, false);
+    }
 
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                log.debug("Failed to visit file: {}", file, exc);
-                return FileVisitResult.CONTINUE;
-            }
-        });
-
-        results.sort(String::compareTo);
-        return results;
+    private boolean matchesGlob(GlobMatcher matcher, Path entry, Path repoRoot) {
+        String relativeStr = repoRoot.relativize(entry).toString().replace('\\', '/');
+        return !relativeStr.isEmpty() && matcher.matches(relativeStr);
     }
 
     private Path extractBasePath(String pattern) {
@@ -392,62 +1158,448 @@ public class ToolsService {
         return Paths.get(beforeGlob.substring(0, lastSep + 1));
     }
 
-    private java.util.regex.Pattern compilePattern(String pattern, boolean isRegex, boolean caseSensitive) {
+    /**
+     * Compiled search plus the literal clauses every match must contain (used to consult the trigram index).
+     * Regex searches set {@code pattern}, {@code prefilter} and the time one line's match may take before it is
+     * aborted; literal searches set {@code literalSearcher}.
+     */
+    private record SearchQuery(java.util.regex.Pattern pattern, RegexPrefilter prefilter, LiteralSearcher literalSearcher,
+                               List<List<String>> requiredClauses, boolean caseSensitive, long regexBudgetNanos) {
+
+        /**
+         * Matches one line within its own regex budget and the search deadline, whichever comes first. Walking and
+         * reading files never count against the line budget.
+         *
+         * @param searchDeadlineNanos {@link System#nanoTime()} value at which the whole search stops, or null to
+         *                            bound this line by its own budget only
+         */
+        LineOutcome regexFind(String line, Long searchDeadlineNanos) {
+            long lineDeadline = System.nanoTime() + regexBudgetNanos;
+            if (searchDeadlineNanos != null) {
+                if (System.nanoTime() - searchDeadlineNanos > 0) {
+                    return LineOutcome.SEARCH_TIME_UP;
+                }
+                lineDeadline = lineDeadline - searchDeadlineNanos > 0 ? searchDeadlineNanos : lineDeadline;
+            }
+            try {
+                return pattern.matcher(new DeadlineCharSequence(line, lineDeadline)).find()
+                        ? LineOutcome.MATCH
+                        : LineOutcome.NO_MATCH;
+            } catch (DeadlineCharSequence.DeadlineExceededException e) {
+                // Cancelled workers are discarded, so an interrupt only needs to stop the scan
+                boolean searchOver = Thread.currentThread().isInterrupted()
+                        || (searchDeadlineNanos != null && System.nanoTime() - searchDeadlineNanos > 0);
+                return searchOver ? LineOutcome.SEARCH_TIME_UP : LineOutcome.REGEX_BUDGET_EXCEEDED;
+            }
+        }
+    }
+
+    private enum LineOutcome {
+        MATCH, NO_MATCH,
+        /** search.timeout-ms passed; the line was not (completely) matched and must be searched again */
+        SEARCH_TIME_UP,
+        /** the line alone used up regex-timeout-ms */
+        REGEX_BUDGET_EXCEEDED
+    }
+
+    private SearchQuery regexQuery(String pattern, boolean caseSensitive) {
+        java.util.regex.Pattern compiled = compileRegex(pattern, caseSensitive);
+        List<List<String>> clauses = RegexLiterals.requiredClauses(pattern);
+        return new SearchQuery(compiled, new RegexPrefilter(clauses, caseSensitive), null, clauses, caseSensitive,
+                regexTimeoutMs * 1_000_000L);
+    }
+
+    private java.util.regex.Pattern compileRegex(String pattern, boolean caseSensitive) {
         int flags = caseSensitive ? 0 : java.util.regex.Pattern.CASE_INSENSITIVE;
+        return java.util.regex.Pattern.compile(pattern, flags);
+    }
 
-        if (isRegex) {
-            return java.util.regex.Pattern.compile(pattern, flags);
-        } else {
-            String escaped = java.util.regex.Pattern.quote(pattern);
-            return java.util.regex.Pattern.compile(escaped, flags);
+    /**
+     * Running result of one searchText page. The resume position (from the request cursor) is read by the
+     * scanners; {@code lastFile}/{@code lastLine} track the last collected match and become the next cursor.
+     */
+    private static final class SearchResults {
+        private final List<String> lines = new ArrayList<>();
+        private final Path resumeFile;
+        private final int resumeLine;
+        private final long deadlineNanos;
+        private Path lastFile;
+        private int lastLine;
+        // Where the search stopped early (time limit or regex budget): lines of stoppedAt up to stoppedAfterLine
+        // were searched; skippedLine is the line that exceeded the regex budget, or 0
+        private Path stoppedAt;
+        private int stoppedAfterLine;
+        private int skippedLine;
+
+        SearchResults(Path resumeFile, int resumeLine, long deadlineNanos) {
+            this.resumeFile = resumeFile;
+            this.resumeLine = resumeLine;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Stops handing out files once search-timeout has passed, remembering the first file not searched.
+         * At least one file is always searched so that following the cursor makes progress.
+         */
+        Iterator<Path> untilDeadline(Iterator<Path> files) {
+            return new Iterator<>() {
+                private boolean started;
+
+                @Override
+                public boolean hasNext() {
+                    if (stoppedAt != null || !files.hasNext()) {
+                        return false;
+                    }
+                    if (started && System.nanoTime() - deadlineNanos > 0) {
+                        stoppedAt = files.next();
+                        return false;
+                    }
+                    return true;
+                }
+
+                @Override
+                public Path next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    started = true;
+                    return files.next();
+                }
+            };
+        }
+
+        List<String> lines() {
+            return lines;
+        }
+
+        /**
+         * Lines of {@code file} already returned by earlier pages (matches on them are skipped).
+         */
+        int skipThroughLine(Path file) {
+            return file.equals(resumeFile) ? resumeLine : 0;
         }
-    }
 
-    private boolean searchInFile(Path file, java.util.regex.Pattern pattern, Path repoRoot, List<String> results) throws IOException {
-        if (results.size() >= maxSearchResults) {
+        /**
+         * Records that a file's scan stopped early, if it did.
+         *
+         * @return true if the search must stop here
+         */
+        boolean stopIfIncomplete(FileMatches fileMatches) {
+            if (fileMatches.stoppedAtLine() == 0) {
+                return false;
+            }
+            stoppedAt = fileMatches.file();
+            skippedLine = fileMatches.regexBudgetExceeded() ? fileMatches.stoppedAtLine() : 0;
+            stoppedAfterLine = fileMatches.regexBudgetExceeded()
+                    ? fileMatches.stoppedAtLine()
+                    : fileMatches.stoppedAtLine() - 1;
             return true;
         }
+    }
+
+    /**
+     * Matches found in one file, capped at max-search-results.
+     *
+     * @param lineNumbers         line number of each match (parallel to {@code matches})
+     * @param linesAfterLastMatch whether the file has lines after the last collected match
+     * @param stoppedAtLine       line at which the scan stopped early (see {@link LineOutcome}), or 0 if it finished
+     * @param regexBudgetExceeded whether it stopped because that line exceeded the regex budget
+     */
+    private record FileMatches(Path file, List<String> matches, List<Integer> lineNumbers, boolean linesAfterLastMatch,
+                               int stoppedAtLine, boolean regexBudgetExceeded) {
+        static final FileMatches NONE = new FileMatches(null, List.of(), List.of(), false, 0, false);
+
+        FileMatches(Path file, List<String> matches, List<Integer> lineNumbers, boolean linesAfterLastMatch) {
+            this(file, matches, lineNumbers, linesAfterLastMatch, 0, false);
+        }
 
-        List<String> lines = Files.readAllLines(file);
+        static FileMatches stopped(Path file, List<String> matches, List<Integer> lineNumbers, int line,
+                                   LineOutcome outcome) {
+            return new FileMatches(file, matches, lineNumbers, true, line, outcome == LineOutcome.REGEX_BUDGET_EXCEEDED);
+        }
+    }
+
+    private boolean searchInFile(Path file, SearchQuery query, Path repoRoot, SearchResults results) throws IOException {
+        // A single named file is likely to be read or searched again, so it goes through the content cache;
+        // directory scans read from disk to keep one-off files from evicting it
+        byte[] content = fileContentCache.get(file);
+        FileMatches fileMatches = scanFile(file, content, query, repoRoot, results.skipThroughLine(file), results.deadlineNanos);
+        boolean truncated = appendMatches(fileMatches, results, false);
+        if (!truncated) {
+            results.stopIfIncomplete(fileMatches);
+        }
+        return truncated;
+    }
+
+    /**
+     * @param content current file bytes, or null to read the file from disk
+     * @param searchDeadlineNanos {@link System#nanoTime()} value at which regex matching stops; the first line
+     *                            examined is exempt so that every page makes progress
+     */
+    private FileMatches scanFile(Path file, byte[] content, SearchQuery query, Path repoRoot, int skipThroughLine,
+                                 long searchDeadlineNanos) throws IOException {
         String relativePath = repoRoot.relativize(file).toString().replace('\\', '/');
+        List<String> matches = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+
+        if (query.literalSearcher() != null) {
+            int[] lastMatchLine = {0};
+            int lineCount = searchLiteral(query.literalSearcher(), file, content, (lineNumber, line) -> {
+                if (lineNumber > skipThroughLine) {
+                    matches.add(formatMatch(relativePath, lineNumber, line));
+                    lineNumbers.add(lineNumber);
+                    lastMatchLine[0] = lineNumber;
+                }
+                return matches.size() < maxSearchResults;
+            });
+            return new FileMatches(file, matches, lineNumbers, lastMatchLine[0] < lineCount);
+        }
 
-        for (int i = 0; i < lines.size(); i++) {
-            if (results.size() >= maxSearchResults) {
-                return true;
+        RegexPrefilter prefilter = query.prefilter();
+        if (prefilter.anchor() != null) {
+            // Only lines containing the anchor literal are decoded and handed to the regex
+            int[] lastMatchLine = {0};
+            int[] stoppedAt = {0};
+            LineOutcome[] stop = {null};
+            boolean[] examined = {false};
+            int lineCount = searchLiteral(prefilter.anchor(), file, content, (lineNumber, line) -> {
+                if (lineNumber <= skipThroughLine || !prefilter.mayMatch(line)) {
+                    return true;
+                }
+                LineOutcome outcome = query.regexFind(line, examined[0] ? searchDeadlineNanos : null);
+                examined[0] = true;
+                if (outcome == LineOutcome.MATCH) {
+                    matches.add(formatMatch(relativePath, lineNumber, line));
+                    lineNumbers.add(lineNumber);
+                    lastMatchLine[0] = lineNumber;
+                } else if (outcome != LineOutcome.NO_MATCH) {
+                    stoppedAt[0] = lineNumber;
+                    stop[0] = outcome;
+                    return false;
+                }
+                return matches.size() < maxSearchResults;
+            });
+            if (stop[0] != null) {
+                return FileMatches.stopped(file, matches, lineNumbers, stoppedAt[0], stop[0]);
+            }
+            return new FileMatches(file, matches, lineNumbers, lastMatchLine[0] < lineCount);
+        }
+
+        List<String> lines = content != null
+                ? decodeUtf8(content).lines().toList()
+                : Files.readAllLines(file);
+        int lastMatchLine = -1;
+        boolean examined = false;
+        for (int i = skipThroughLine; i < lines.size(); i++) {
+            if (matches.size() >= maxSearchResults || Thread.currentThread().isInterrupted()) {
+                break;
             }
 
             String line = lines.get(i);
-            java.util.regex.Matcher matcher = pattern.matcher(line);
-            if (matcher.find()) {
-                int lineNumber = i + 1;
-                String snippet = line.trim();
-                if (snippet.length() > 100) {
-                    snippet = snippet.substring(0, 100) + "...";
-                }
-                results.add(String.format("%s:%d:%s", relativePath, lineNumber, snippet));
+            if (!prefilter.mayMatch(line)) {
+                continue;
+            }
+            LineOutcome outcome = query.regexFind(line, examined ? searchDeadlineNanos : null);
+            examined = true;
+            if (outcome == LineOutcome.MATCH) {
+                matches.add(formatMatch(relativePath, i + 1, line));
+                lineNumbers.add(i + 1);
+                lastMatchLine = i;
+            } else if (outcome != LineOutcome.NO_MATCH) {
+                return FileMatches.stopped(file, matches, lineNumbers, i + 1, outcome);
             }
         }
 
-        return false;
+        return new FileMatches(file, matches, lineNumbers, lastMatchLine < lines.size() - 1);
     }
 
-    private boolean searchInDirectory(Path dir, java.util.regex.Pattern pattern, Path repoRoot, List<String> results) throws IOException {
-        try (var stream = Files.walk(dir)) {
-            for (Path file : (Iterable<Path>) stream.filter(Files::isRegularFile)::iterator) {
-                if (results.size() >= maxSearchResults) {
-                    return true;
-                }
-                try {
-                    boolean truncated = searchInFile(file, pattern, repoRoot, results);
-                    if (truncated) {
-                        return true;
+    private static int searchLiteral(LiteralSearcher searcher, Path file, byte[] content, LiteralSearcher.LineSink sink)
+            throws IOException {
+        return content != null ? searcher.search(content, sink) : searcher.search(file, sink);
+    }
+
+    private String formatMatch(String relativePath, int lineNumber, String line) {
+        return LineRenderer.match(relativePath, lineNumber, line);
+    }
+
+    /**
+     * Appends a file's matches up to the result cap.
+     *
+     * @return true if the cap was reached while lines or files remained unsearched (same rule as a sequential scan)
+     */
+    private boolean appendMatches(FileMatches fileMatches, SearchResults results, boolean moreFiles) {
+        int room = maxSearchResults - results.lines().size();
+        if (room <= 0) {
+            return true;
+        }
+        int taken = Math.min(room, fileMatches.matches().size());
+        results.lines().addAll(fileMatches.matches().subList(0, taken));
+        if (taken > 0) {
+            results.lastFile = fileMatches.file();
+            results.lastLine = fileMatches.lineNumbers().get(taken - 1);
+        }
+        if (results.lines().size() < maxSearchResults) {
+            return false;
+        }
+        boolean moreLines = taken < fileMatches.matches().size() || fileMatches.linesAfterLastMatch();
+        return moreLines || moreFiles;
+    }
+
+    private boolean searchInDirectory(Path dir, SearchQuery query, Path repoRoot, SearchResults results) {
+        Iterator<Path> files = walkFiles(dir, results.resumeFile);
+        Optional<Predicate<Path>> candidates = trigramIndex.candidateFilter(dir, query.requiredClauses(), query.caseSensitive());
+        if (candidates.isPresent()) {
+            files = filter(files, candidates.get());
+        }
+        return searchInFiles(results.untilDeadline(files), query, repoRoot, results);
+    }
+
+    private static Iterator<Path> filter(Iterator<Path> files, Predicate<Path> keep) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(files, Spliterator.ORDERED), false)
+                .filter(keep)
+                .iterator();
+    }
+
+    /**
+     * Regular files under {@code dir} in {@link SortedFileWalker} order, starting at {@code resumeFrom} (inclusive).
+     */
+    private Iterator<Path> walkFiles(Path dir, Path resumeFrom) {
+        SortedFileWalker walker = new SortedFileWalker(repoTree, dir, resumeFrom, true);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(walker, Spliterator.ORDERED), false)
+                .filter(SortedFileWalker.Entry::regularFile)
+                .map(SortedFileWalker.Entry::path)
+                .iterator();
+    }
+
+    /**
+     * Scans files in parallel via {@link ParallelFileScanner}; results are merged in walk order and all
+     * workers are cancelled as soon as max-search-results is reached.
+     */
+    private boolean searchInFiles(Iterator<Path> files, SearchQuery query, Path repoRoot, SearchResults results) {
+        boolean[] truncated = {false};
+        parallelFileScanner.forEachOrdered(files,
+                file -> {
+                    try {
+                        return scanFile(file, null, query, repoRoot, results.skipThroughLine(file), results.deadlineNanos);
+                    } catch (IOException e) {
+                        log.debug("Failed to search file: {}", file, e);
+                        return FileMatches.NONE;
+                    }
+                },
+                (fileMatches, hasMore) -> {
+                    truncated[0] = appendMatches(fileMatches, results, hasMore);
+                    if (!truncated[0] && results.stopIfIncomplete(fileMatches)) {
+                        return false; // later files are searched by the next page
                     }
-                } catch (IOException e) {
-                    log.debug("Failed to search file: {}", file, e);
+                    return results.lines().size() < maxSearchResults;
+                });
+        return truncated[0];
+    }
+
+    // Helper methods for searchMultiple
+
+    /**
+     * Per-pattern matches of a multi-pattern search (indexed like the pattern list), each capped at
+     * max-search-results. {@code truncated[i]} is set once pattern i had more matches than fit.
+     */
+    private record MultiMatches(List<List<String>> byPattern, boolean[] truncated) {
+        static MultiMatches empty(int patternCount) {
+            List<List<String>> byPattern = new ArrayList<>(patternCount);
+            for (int i = 0; i < patternCount; i++) {
+                byPattern.add(new ArrayList<>());
+            }
+            return new MultiMatches(byPattern, new boolean[patternCount]);
+        }
+    }
+
+    private MultiMatches scanFileMulti(Path file, AhoCorasick automaton, Path repoRoot) throws IOException {
+        String relativePath = repoRoot.relativize(file).toString().replace('\\', '/');
+        MultiMatches matches = MultiMatches.empty(automaton.patternCount());
+        automaton.search(file, (lineNumber, line, matched) -> {
+            String formatted = formatMatch(relativePath, lineNumber, line);
+            boolean anyRoom = false;
+            for (int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)) {
+                List<String> list = matches.byPattern().get(id);
+                if (list.size() < maxSearchResults) {
+                    list.add(formatted);
+                } else {
+                    matches.truncated()[id] = true;
                 }
             }
+            for (List<String> list : matches.byPattern()) {
+                anyRoom |= list.size() < maxSearchResults;
+            }
+            return anyRoom;
+        });
+        return matches;
+    }
+
+    /**
+     * Merges one file's matches into the running totals.
+     *
+     * @return true while at least one pattern still has room below max-search-results
+     */
+    private boolean appendMultiMatches(MultiMatches fileMatches, MultiMatches results, boolean moreFiles) {
+        boolean anyRoom = false;
+        for (int id = 0; id < fileMatches.byPattern().size(); id++) {
+            List<String> total = results.byPattern().get(id);
+            List<String> found = fileMatches.byPattern().get(id);
+            int room = maxSearchResults - total.size();
+            int taken = Math.min(room, found.size());
+            total.addAll(found.subList(0, taken));
+            if (taken < found.size() || fileMatches.truncated()[id]) {
+                results.truncated()[id] = true;
+            }
+            anyRoom |= total.size() < maxSearchResults;
+        }
+        if (!anyRoom && moreFiles) {
+            // Search stops here; every pattern is at its cap with files left unsearched
+            Arrays.fill(results.truncated(), true);
+        }
+        return anyRoom;
+    }
+
+    private void searchMultipleInDirectory(Path dir, AhoCorasick automaton, List<String> patterns, boolean caseSensitive,
+                                           Path repoRoot, MultiMatches results) {
+        // A file is a candidate if it may contain any of the patterns: one clause with every pattern as an alternative
+        Iterator<Path> files = walkFiles(dir, null);
+        Optional<Predicate<Path>> candidates = trigramIndex.candidateFilter(dir, List.of(patterns), caseSensitive);
+        if (candidates.isPresent()) {
+            files = filter(files, candidates.get());
+        }
+        searchMultipleInFiles(files, automaton, repoRoot, results);
+    }
+
+    private void searchMultipleInFiles(Iterator<Path> files, AhoCorasick automaton, Path repoRoot, MultiMatches results) {
+        parallelFileScanner.forEachOrdered(files,
+                file -> {
+                    try {
+                        return scanFileMulti(file, automaton, repoRoot);
+                    } catch (IOException e) {
+                        log.debug("Failed to search file: {}", file, e);
+                        return MultiMatches.empty(automaton.patternCount());
+                    }
+                },
+                (fileMatches, hasMore) -> appendMultiMatches(fileMatches, results, hasMore));
+    }
+
+    private String formatMultiResults(List<String> patterns, MultiMatches results, String searchPath) {
+        int total = results.byPattern().stream().mapToInt(List::size).sum();
+        StringBuilder out = new StringBuilder()
+                .append("Found ").append(total).append(" matches for ").append(patterns.size())
+                .append(" patterns in ").append(searchPath);
+        for (int id = 0; id < patterns.size(); id++) {
+            List<String> matches = results.byPattern().get(id);
+            out.append("\n\n=== '").append(patterns.get(id)).append("' (").append(matches.size()).append(" matches)");
+            if (results.truncated()[id]) {
+                out.append(" [TRUNCATED: reached limit ").append(maxSearchResults).append(" before completing search]");
+            }
+            out.append(" ===");
+            for (String match : matches) {
+                out.append('\n').append(match);
+            }
         }
-        return false;
+        return out.toString();
     }
 
     private int countOccurrences(String content, String target) {
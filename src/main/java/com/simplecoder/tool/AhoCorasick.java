@@ -0,0 +1,234 @@
+package com.simplecoder.tool;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton that finds many literals in a single pass over a file's bytes.
+ *
+ * <p>Design:
+ * - Patterns are compiled into a full DFA over UTF-8 bytes (256-way transition table per state), so the scan
+ *   does one table lookup per byte regardless of how many patterns there are
+ * - The automaton restarts at every '\n', so matches never span lines
+ * - Only lines that contain at least one pattern are decoded; invalid UTF-8 decodes to U+FFFD
+ * - Case-insensitive mode folds ASCII letters, like {@link LiteralSearcher}
+ *
+ * <p>Patterns containing a line break can never match a single line and are never reported.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class AhoCorasick {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int patternCount;
+    private final boolean caseSensitive;
+    private final int[][] delta;
+    private final int[][] output;
+
+    /**
+     * @param patterns      literals to find (pattern ids are their list indexes)
+     * @param caseSensitive whether ASCII case must match exactly
+     */
+    public AhoCorasick(List<String> patterns, boolean caseSensitive) {
+        this.patternCount = patterns.size();
+        this.caseSensitive = caseSensitive;
+
+        // 1. Trie of folded pattern bytes
+        List<int[]> trie = new ArrayList<>();
+        List<int[]> ownOutput = new ArrayList<>();
+        trie.add(newRow());
+        ownOutput.add(NO_OUTPUT);
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (pattern.isEmpty() || pattern.indexOf('\n') >= 0 || pattern.indexOf('\r') >= 0) {
+                continue;
+            }
+            int state = 0;
+            for (byte b : pattern.getBytes(StandardCharsets.UTF_8)) {
+                int c = fold(b);
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newRow());
+                    ownOutput.add(NO_OUTPUT);
+                }
+                state = trie.get(state)[c];
+            }
+            int[] outs = ownOutput.get(state);
+            int[] extended = Arrays.copyOf(outs, outs.length + 1);
+            extended[outs.length] = id;
+            ownOutput.set(state, extended);
+        }
+
+        // 2. BFS: failure links, complete DFA transitions and merged outputs
+        int states = trie.size();
+        this.delta = new int[states][];
+        this.output = new int[states][];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+
+        delta[0] = new int[256];
+        output[0] = ownOutput.get(0);
+        for (int c = 0; c < 256; c++) {
+            int child = trie.get(0)[c];
+            if (child >= 0) {
+                delta[0][c] = child;
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            output[state] = merge(ownOutput.get(state), output[fail[state]]);
+            delta[state] = new int[256];
+            for (int c = 0; c < 256; c++) {
+                int child = trie.get(state)[c];
+                if (child >= 0) {
+                    delta[state][c] = child;
+                    fail[child] = delta[fail[state]][c];
+                    queue.add(child);
+                } else {
+                    delta[state][c] = delta[fail[state]][c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives lines containing at least one pattern, in file order.
+     */
+    @FunctionalInterface
+    public interface LineSink {
+        /**
+         * @param lineNumber 1-based line number
+         * @param line       decoded line content without terminator
+         * @param matched    ids of the patterns found on this line (only valid during the call)
+         * @return true to keep scanning, false to stop
+         */
+        boolean accept(int lineNumber, String line, BitSet matched);
+    }
+
+    public int patternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Scans a file once and reports every line containing any pattern.
+     *
+     * @param file file to scan
+     * @param sink receives matching lines; returning false stops the scan
+     * @throws IOException if the file cannot be read (including interruption of the calling thread)
+     */
+    public void search(Path file, LineSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] buf = new byte[CHUNK_SIZE];
+            BitSet matched = new BitSet(patternCount);
+            int len = 0;
+            int lineNumber = 1;
+            boolean eof = false;
+
+            while (!eof || len > 0) {
+                if (!eof) {
+                    if (len == buf.length) {
+                        buf = Arrays.copyOf(buf, buf.length * 2); // single line longer than the buffer
+                    }
+                    int read = channel.read(ByteBuffer.wrap(buf, len, buf.length - len));
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        len += read;
+                    }
+                }
+
+                int limit = eof ? len : lastNewline(buf, len) + 1;
+                if (limit == 0) {
+                    continue; // no complete line yet - read more
+                }
+
+                int state = 0;
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    byte b = buf[i];
+                    if (b == '\n') {
+                        if (!matched.isEmpty()) {
+                            if (!sink.accept(lineNumber, decodeLine(buf, lineStart, i), matched)) {
+                                return;
+                            }
+                            matched.clear();
+                        }
+                        lineNumber++;
+                        lineStart = i + 1;
+                        state = 0;
+                        continue;
+                    }
+                    state = delta[state][fold(b)];
+                    int[] outs = output[state];
+                    for (int id : outs) {
+                        matched.set(id);
+                    }
+                }
+                if (lineStart < limit && !matched.isEmpty()) {
+                    // Unterminated last line at EOF
+                    if (!sink.accept(lineNumber, decodeLine(buf, lineStart, limit), matched)) {
+                        return;
+                    }
+                    matched.clear();
+                }
+
+                System.arraycopy(buf, limit, buf, 0, len - limit);
+                len -= limit;
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Multi-pattern search interrupted: " + file);
+                }
+            }
+        }
+    }
+
+    private int fold(byte b) {
+        int v = b & 0xFF;
+        return !caseSensitive && v >= 'A' && v <= 'Z' ? v + ('a' - 'A') : v;
+    }
+
+    private static String decodeLine(byte[] buf, int start, int end) {
+        int contentEnd = end > start && buf[end - 1] == '\r' ? end - 1 : end;
+        return new String(buf, start, contentEnd - start, StandardCharsets.UTF_8);
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[256];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] merge(int[] own, int[] inherited) {
+        if (inherited.length == 0) {
+            return own;
+        }
+        if (own.length == 0) {
+            return inherited;
+        }
+        int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+        return merged;
+    }
+
+    private static int lastNewline(byte[] buf, int len) {
+        for (int i = len - 1; i >= 0; i--) {
+            if (buf[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package com.simplecoder.tool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Replaces file contents atomically: the new content is written to a temp file in the same directory, which is
+ * then renamed over the target.
+ *
+ * <p>Readers (and a crash at any point) see either the complete old or the complete new file, never a partial
+ * write. The temp file gets the target's POSIX permissions before the rename, so edits don't change the mode
+ * (e.g. executable scripts stay executable). Targets are expected to be symlink-resolved (PathValidator does
+ * this); renaming over a symlink would replace the link itself.
+ *
+ * <p>Durability (simple-coder.write.fsync):
+ * - none: no fsync - the rename is atomic for readers, but after a power loss the file may be empty or old
+ * - file: the temp file's data is flushed before the rename, so the target is never empty after a crash (default)
+ * - full: additionally flushes the directory, so the rename itself survives a power loss
+ */
+@Slf4j
+@Component
+public class AtomicFileWriter {
+
+    /**
+     * How much is flushed to stable storage before a write returns.
+     */
+    public enum Durability { NONE, FILE, FULL }
+
+    /**
+     * Writes the new content into the (empty) temp file channel.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private final Durability durability;
+
+    public AtomicFileWriter(@Value("${simple-coder.write.fsync:file}") Durability durability) {
+        this.durability = durability;
+        log.info("AtomicFileWriter initialized with fsync={}", durability);
+    }
+
+    /**
+     * Atomically replaces the target's content with {@code content}.
+     */
+    public void write(Path target, byte[] content) throws IOException {
+        write(target, channel -> {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+
+    /**
+     * Atomically replaces the target's content with whatever {@code body} writes. If {@code body} fails the
+     * target is left untouched.
+     */
+    public void write(Path target, ContentWriter body) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, "." + target.getFileName() + ".", ".tmp");
+        try {
+            copyPermissions(target, temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                body.writeTo(channel);
+                if (durability != Durability.NONE) {
+                    channel.force(false);
+                }
+            }
+            move(temp, target);
+            temp = null;
+        } finally {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        if (durability == Durability.FULL) {
+            syncDirectory(dir);
+        }
+    }
+
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        PosixFileAttributeView source = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+        if (source != null && Files.exists(from)) {
+            Files.getFileAttributeView(to, PosixFileAttributeView.class).setPermissions(source.readAttributes().permissions());
+        }
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Some file systems (e.g. certain network mounts) can't rename atomically; still avoid partial content
+            log.warn("Atomic rename not supported for {} - falling back to a plain replace", target);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync not supported for {}: {}", dir, e.getMessage()); // e.g. on Windows
+        }
+    }
+}
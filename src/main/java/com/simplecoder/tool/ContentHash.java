@@ -0,0 +1,39 @@
+package com.simplecoder.tool;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Short content fingerprint that readFile reports and the editing tools accept as {@code expectedHash}.
+ *
+ * <p>It is the first 64 bits of the SHA-256 of the file bytes, as 16 hex digits. That is plenty to detect that a
+ * file changed since it was read (it is an optimistic-concurrency check, not a security boundary), and short
+ * enough to cost the model almost no tokens.
+ */
+public final class ContentHash {
+
+    private static final int HEX_DIGITS = 16;
+
+    private ContentHash() {
+    }
+
+    public static String of(byte[] content) {
+        return hex(newDigest().digest(content));
+    }
+
+    /**
+     * A digest to feed content in pieces; finish with {@link #hex}.
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // mandatory in every JRE
+        }
+    }
+
+    static String hex(byte[] digest) {
+        return HexFormat.of().formatHex(digest, 0, HEX_DIGITS / 2);
+    }
+}
@@ -0,0 +1,64 @@
+package com.simplecoder.tool;
+
+/**
+ * CharSequence wrapper that aborts regex matching once a deadline passes.
+ *
+ * <p>java.util.regex reads its input exclusively through {@link #charAt(int)}, so a pattern with catastrophic
+ * backtracking keeps calling it. Every 1024 reads the wrapper checks the clock and the thread's interrupt flag
+ * and throws {@link DeadlineExceededException} to unwind the matcher. The same check makes cancelled parallel
+ * scans stop even while stuck inside a single {@code Matcher.find()}.
+ */
+public final class DeadlineCharSequence implements CharSequence {
+
+    private static final int CHECK_MASK = 0x3FF;
+
+    private final CharSequence delegate;
+    private final long deadlineNanos;
+    private int reads;
+
+    /**
+     * @param delegate      text to match against
+     * @param deadlineNanos {@link System#nanoTime()} value after which matching is aborted
+     */
+    public DeadlineCharSequence(CharSequence delegate, long deadlineNanos) {
+        this.delegate = delegate;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Thrown from inside the regex engine when the deadline has passed or the thread was interrupted.
+     */
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    @Override
+    public char charAt(int index) {
+        if ((++reads & CHECK_MASK) == 0) {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new DeadlineExceededException("Regex execution budget exceeded");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new DeadlineExceededException("Regex execution interrupted");
+            }
+        }
+        return delegate.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return delegate.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new DeadlineCharSequence(delegate.subSequence(start, end), deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package com.simplecoder.tool;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared, byte-bounded cache of raw file contents for ToolsService reads.
+ *
+ * <p>The agent re-reads the same files within one ReAct loop and across concurrent requests. Entries hold the
+ * file bytes together with the mtime, size and file key (inode) they were read at; every lookup re-checks these
+ * with a single stat, so a file changed on disk is never served stale. Eviction is LRU by total bytes
+ * (max-bytes); files above max-file-bytes are never cached and callers stream them from disk instead.
+ *
+ * <p>Hit/miss/eviction counts are available from {@link #stats()} and, when a Micrometer registry is present
+ * (e.g. with Spring Boot Actuator), as {@code simplecoder.file.cache.*} meters.
+ */
+@Slf4j
+@Component
+public class FileContentCache implements MeterBinder {
+
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    private record Entry(byte[] content, long modifiedMillis, long size, Object fileKey) {
+
+        boolean matches(BasicFileAttributes attrs) {
+            return attrs.lastModifiedTime().toMillis() == modifiedMillis && attrs.size() == size
+                    && Objects.equals(attrs.fileKey(), fileKey);
+        }
+    }
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes) {
+    }
+
+    /**
+     * File bytes together with the attributes they were validated against, so callers that derive data from the
+     * bytes (e.g. LineOffsetIndex) can key it by the same file version.
+     *
+     * @param attributes null if the file changed while it was being read (the bytes belong to no known version)
+     */
+    public record Content(byte[] bytes, BasicFileAttributes attributes) {
+    }
+
+    public FileContentCache(
+            @Value("${simple-coder.read.content-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${simple-coder.read.content-cache.max-file-bytes:4194304}") long maxFileBytes) {
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = Math.min(maxFileBytes, maxBytes);
+        log.info("FileContentCache initialized with max-bytes={}, max-file-bytes={}", maxBytes, maxFileBytes);
+    }
+
+    /**
+     * Creates a cache that stores nothing (every lookup returns null and callers read from disk).
+     */
+    public static FileContentCache disabled() {
+        return new FileContentCache(0, 0);
+    }
+
+    /**
+     * Returns the current content of a file, from the cache when it is still valid.
+     *
+     * @return file bytes, or null if the file is too large to cache (the caller should read it from disk)
+     * @throws IOException if the file cannot be read
+     */
+    public byte[] get(Path file) throws IOException {
+        Content content = read(file);
+        return content != null ? content.bytes() : null;
+    }
+
+    /**
+     * Same as {@link #get(Path)}, also returning the attributes the bytes were validated against.
+     *
+     * @return file content, or null if the file is too large to cache (the caller should read it from disk)
+     * @throws IOException if the file cannot be read
+     */
+    public Content read(Path file) throws IOException {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attrs.size() > maxFileBytes) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry cached = entries.get(file);
+            if (cached != null && cached.matches(attrs)) {
+                hits.increment();
+                return new Content(cached.content(), attrs);
+            }
+        }
+
+        misses.increment();
+        byte[] content = Files.readAllBytes(file);
+        if (content.length != attrs.size()) {
+            return new Content(content, null); // changed while reading - serve it, but don't cache under the old attributes
+        }
+        Entry entry = new Entry(content, attrs.lastModifiedTime().toMillis(), attrs.size(), attrs.fileKey());
+        synchronized (entries) {
+            Entry previous = entries.put(file, entry);
+            totalBytes += content.length - (previous != null ? previous.content().length : 0);
+            evictToBudget();
+        }
+        return new Content(content, attrs);
+    }
+
+    /**
+     * Drops a file's entry (called after ToolsService writes it).
+     */
+    public void invalidate(Path file) {
+        synchronized (entries) {
+            Entry removed = entries.remove(file);
+            if (removed != null) {
+                totalBytes -= removed.content().length;
+            }
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), totalBytes);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("simplecoder.file.cache.requests", hits, LongAdder::doubleValue)
+                .tag("result", "hit").description("File content cache lookups served from memory").register(registry);
+        FunctionCounter.builder("simplecoder.file.cache.requests", misses, LongAdder::doubleValue)
+                .tag("result", "miss").description("File content cache lookups read from disk").register(registry);
+        FunctionCounter.builder("simplecoder.file.cache.evictions", evictions, LongAdder::doubleValue)
+                .description("Entries evicted to stay within max-bytes").register(registry);
+        Gauge.builder("simplecoder.file.cache.size", this, c -> c.stats().bytes())
+                .baseUnit("bytes").description("Bytes of file content currently cached").register(registry);
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().getValue().content().length;
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.simplecoder.tool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-path locks that serialize read-modify-write edits of the same file across concurrent requests.
+ *
+ * <p>Each path maps to one of a fixed number of locks by hash, so memory stays constant however many files are
+ * edited, and edits of different files only contend when their paths share a stripe (1 in {@code stripes}).
+ * Batch edits lock all their stripes in ascending order, so two batches can never deadlock. Locks are
+ * reentrant, so a tool holding a file's lock may call a helper that locks it again.
+ */
+@Slf4j
+@Component
+public class FileLocks {
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Releases the locks taken by {@link #lock(Path)} or {@link #lockAll(Collection)}.
+     */
+    public interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public FileLocks(@Value("${simple-coder.write.lock-stripes:64}") int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        log.info("FileLocks initialized with lock-stripes={}", stripes);
+    }
+
+    /**
+     * Locks one file (use with try-with-resources).
+     */
+    public Held lock(Path file) {
+        ReentrantLock lock = stripes[stripe(file)];
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Locks several files at once, acquiring their stripes in ascending order.
+     */
+    public Held lockAll(Collection<Path> files) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Path file : files) {
+            indexes.add(stripe(file));
+        }
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+        return () -> indexes.descendingSet().forEach(index -> stripes[index].unlock());
+    }
+
+    private int stripe(Path file) {
+        int h = file.toAbsolutePath().normalize().hashCode();
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+}
@@ -0,0 +1,149 @@
+package com.simplecoder.tool;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Glob pattern compiled per path segment, so a walk can skip directories that cannot contain a match.
+ *
+ * <p>{@link #matches(String)} is exactly the JDK {@code glob:} {@link PathMatcher}. In addition the pattern is
+ * split at '/' into segments, each compiled to its own single-name matcher, and {@link #mayMatchBelow(String)}
+ * runs the directory's segments through them as a small NFA: a literal or wildcard segment must match the
+ * directory name, a whole-segment {@code **} matches any number of names. If no state survives, nothing below
+ * the directory can match and the walk skips the subtree. For {@code src/*}{@code /main/**}{@code /*.java}
+ * that means only {@code src/X/main} subtrees are entered.
+ *
+ * <p>The check is conservative: segments it cannot reason about (a {@code **} inside a longer segment, braces or
+ * escapes spanning '/') turn the rest of the pattern into "anything may match", so pruning never changes results.
+ */
+public final class GlobMatcher {
+
+    private final PathMatcher fullMatcher;
+    private final List<Segment> segments;
+
+    private enum Kind { NAME, ANY_DEPTH, UNKNOWN }
+
+    private record Segment(Kind kind, PathMatcher matcher) {
+    }
+
+    private GlobMatcher(PathMatcher fullMatcher, List<Segment> segments) {
+        this.fullMatcher = fullMatcher;
+        this.segments = segments;
+    }
+
+    /**
+     * @param pattern glob relative to the repository root (JDK glob syntax)
+     * @throws IllegalArgumentException if the pattern is not a valid glob
+     */
+    public static GlobMatcher compile(String pattern) {
+        PathMatcher full = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        List<Segment> segments = new ArrayList<>();
+        for (String part : splitSegments(pattern)) {
+            if (part.equals("**")) {
+                segments.add(new Segment(Kind.ANY_DEPTH, null));
+            } else if (part.contains("**") || part.contains("\\")) {
+                segments.add(new Segment(Kind.UNKNOWN, null));
+                break; // crosses segment boundaries - stop reasoning here
+            } else {
+                segments.add(new Segment(Kind.NAME, FileSystems.getDefault().getPathMatcher("glob:" + part)));
+            }
+        }
+        return new GlobMatcher(full, segments);
+    }
+
+    /**
+     * @param relativePath repo-relative path with '/' separators
+     */
+    public boolean matches(String relativePath) {
+        return fullMatcher.matches(Paths.get(relativePath));
+    }
+
+    /**
+     * Whether some path strictly below the directory could match.
+     *
+     * @param relativeDir repo-relative directory with '/' separators ("" for the repository root)
+     */
+    public boolean mayMatchBelow(String relativeDir) {
+        int n = segments.size();
+        boolean[] states = closure(new boolean[n + 1], 0);
+
+        if (!relativeDir.isEmpty()) {
+            for (String name : relativeDir.split("/")) {
+                boolean[] next = new boolean[n + 1];
+                for (int i = 0; i < n; i++) {
+                    if (!states[i]) {
+                        continue;
+                    }
+                    Segment segment = segments.get(i);
+                    switch (segment.kind()) {
+                        case UNKNOWN -> {
+                            return true;
+                        }
+                        case ANY_DEPTH -> closure(next, i);
+                        case NAME -> {
+                            if (segment.matcher().matches(Paths.get(name))) {
+                                closure(next, i + 1);
+                            }
+                        }
+                    }
+                }
+                states = next;
+            }
+        }
+
+        // A surviving state before the last segment means more names remain to be matched below this directory
+        for (int i = 0; i < n; i++) {
+            if (states[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks state {@code i} and every state reachable by letting {@code **} segments match zero names.
+     */
+    private boolean[] closure(boolean[] states, int i) {
+        states[i] = true;
+        while (i < segments.size() && segments.get(i).kind() == Kind.ANY_DEPTH) {
+            states[++i] = true;
+        }
+        return states;
+    }
+
+    /**
+     * Splits at '/' outside of [...] and {...}; a '/' inside braces makes the remainder one UNKNOWN segment.
+     */
+    private static List<String> splitSegments(String pattern) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inBrackets = false;
+        int braceDepth = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '[' && !inBrackets) {
+                inBrackets = true;
+            } else if (c == ']' && inBrackets) {
+                inBrackets = false;
+            } else if (c == '{' && !inBrackets) {
+                braceDepth++;
+            } else if (c == '}' && !inBrackets && braceDepth > 0) {
+                braceDepth--;
+            } else if (c == '/' && !inBrackets) {
+                if (braceDepth > 0) {
+                    parts.add(current + pattern.substring(i) + "**"); // forces UNKNOWN
+                    return parts;
+                }
+                parts.add(current.toString());
+                current.setLength(0);
+                continue;
+            }
+            current.append(c);
+        }
+        parts.add(current.toString());
+        return parts;
+    }
+}
@@ -0,0 +1,302 @@
+package com.simplecoder.tool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * .gitignore-style ignore rules applied to every repository walk.
+ *
+ * <p>Rules come from two sources, lowest priority first:
+ * - configured defaults (simple-coder.ignore.defaults), read like a .gitignore at the repository root: "/build/"
+ * matches only the top-level directory, "node_modules/" matches at any depth
+ * - every .gitignore file from the repository root down to the directory being listed
+ *
+ * <p>Syntax follows gitignore: '#' comments, '!' negation, trailing '/' for directories only, a leading or
+ * inner '/' anchors the pattern to the .gitignore's directory, '*', '?', '[...]' and '**'. The last matching
+ * rule wins.
+ *
+ * <p>Rules are applied by filtering directory listings ({@link #filter(SortedFileWalker.Lister)}), so an
+ * ignored directory is neither yielded nor entered - whole subtrees are pruned. Walking an ignored directory
+ * explicitly (e.g. listFiles("target")) still works, because only its children are filtered, just like git
+ * does not re-examine a path you name directly.
+ */
+@Slf4j
+@Component
+public class IgnoreRules {
+
+    private static final String GITIGNORE = ".gitignore";
+
+    private final Path repoRoot;
+    private final List<Rule> defaults;
+    private final boolean useGitignore;
+    private final Map<Path, OwnRules> ownRules = new ConcurrentHashMap<>();
+
+    /**
+     * One parsed pattern. {@code base} is the directory of the file it came from.
+     */
+    private record Rule(Path base, Pattern regex, boolean negated, boolean directoryOnly, boolean anchored) {
+    }
+
+    /**
+     * Rules of one directory's .gitignore with the modification time they were read at (-1 if absent).
+     */
+    private record OwnRules(long modifiedMillis, List<Rule> rules) {
+        static final OwnRules NONE = new OwnRules(-1, List.of());
+    }
+
+    public IgnoreRules(
+            PathValidator pathValidator,
+            @Value("${simple-coder.ignore.defaults:.git}") String defaults,
+            @Value("${simple-coder.ignore.use-gitignore:true}") boolean useGitignore) {
+        this.repoRoot = pathValidator.getRepoRoot();
+        this.defaults = parse(repoRoot, Arrays.asList(defaults.split(",")));
+        this.useGitignore = useGitignore;
+        log.info("IgnoreRules initialized with defaults={}, use-gitignore={}", defaults, useGitignore);
+    }
+
+    /**
+     * Creates rules that ignore nothing.
+     */
+    public static IgnoreRules none(PathValidator pathValidator) {
+        return new IgnoreRules(pathValidator, "", false);
+    }
+
+    /**
+     * Wraps a lister so that ignored entries are dropped from every listing.
+     */
+    public SortedFileWalker.Lister filter(SortedFileWalker.Lister base) {
+        return dir -> filter(dir, base.list(dir));
+    }
+
+    /**
+     * Drops ignored entries from a listing of {@code dir}.
+     */
+    public List<SortedFileWalker.Entry> filter(Path dir, List<SortedFileWalker.Entry> entries) {
+        if (!dir.startsWith(repoRoot)) {
+            return entries;
+        }
+        boolean hasGitignore = entries.stream().anyMatch(e -> e.path().getFileName().toString().equals(GITIGNORE));
+        List<List<Rule>> chain = chainFor(dir, hasGitignore);
+        if (chain.isEmpty()) {
+            return entries;
+        }
+        List<SortedFileWalker.Entry> kept = new ArrayList<>(entries.size());
+        for (SortedFileWalker.Entry entry : entries) {
+            if (!isIgnored(entry.path(), entry.directory(), chain)) {
+                kept.add(entry);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Whether {@code path} or any of its ancestors below the repository root is ignored, i.e. whether a walk
+     * from the root would never reach it.
+     */
+    public boolean isExcluded(Path path) {
+        if (!path.startsWith(repoRoot) || path.equals(repoRoot)) {
+            return false;
+        }
+        Path current = repoRoot;
+        for (Path name : repoRoot.relativize(path)) {
+            Path child = current.resolve(name);
+            boolean directory = !child.equals(path) || Files.isDirectory(child);
+            if (isIgnored(child, directory, chainFor(current, null))) {
+                return true;
+            }
+            current = child;
+        }
+        return false;
+    }
+
+    /**
+     * Rule lists applicable to entries of {@code dir}, outermost first.
+     *
+     * @param hasGitignore whether dir contains a .gitignore (from its listing), or null if unknown
+     */
+    private List<List<Rule>> chainFor(Path dir, Boolean hasGitignore) {
+        List<List<Rule>> chain = new ArrayList<>();
+        if (!defaults.isEmpty()) {
+            chain.add(defaults);
+        }
+        if (!useGitignore) {
+            return chain;
+        }
+        Path current = repoRoot;
+        addOwnRules(chain, current, dir.equals(repoRoot) ? hasGitignore : null);
+        for (Path name : repoRoot.relativize(dir)) {
+            if (name.toString().isEmpty()) {
+                continue;
+            }
+            current = current.resolve(name);
+            addOwnRules(chain, current, current.equals(dir) ? hasGitignore : null);
+        }
+        return chain;
+    }
+
+    /**
+     * @param hasGitignore presence known from a fresh listing (refreshes the cache), or null to trust the cache
+     */
+    private void addOwnRules(List<List<Rule>> chain, Path dir, Boolean hasGitignore) {
+        OwnRules cached = ownRules.get(dir);
+        OwnRules rules;
+        if (Boolean.FALSE.equals(hasGitignore)) {
+            rules = OwnRules.NONE;
+        } else if (hasGitignore == null && cached != null) {
+            rules = cached;
+        } else {
+            rules = loadGitignore(dir, cached);
+        }
+        if (rules != cached) {
+            ownRules.put(dir, rules);
+        }
+        if (!rules.rules().isEmpty()) {
+            chain.add(rules.rules());
+        }
+    }
+
+    private OwnRules loadGitignore(Path dir, OwnRules cached) {
+        Path file = dir.resolve(GITIGNORE);
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (cached != null && cached.modifiedMillis() == modified) {
+                return cached;
+            }
+            return new OwnRules(modified, parse(dir, Files.readAllLines(file)));
+        } catch (NoSuchFileException e) {
+            return OwnRules.NONE;
+        } catch (IOException e) {
+            log.debug("Failed to read {}", file, e);
+            return OwnRules.NONE;
+        }
+    }
+
+    private static boolean isIgnored(Path path, boolean directory, List<List<Rule>> chain) {
+        String name = path.getFileName().toString();
+        // Last matching rule wins: scan innermost file first, each file bottom-up
+        for (int level = chain.size() - 1; level >= 0; level--) {
+            List<Rule> rules = chain.get(level);
+            for (int i = rules.size() - 1; i >= 0; i--) {
+                Rule rule = rules.get(i);
+                if (rule.directoryOnly() && !directory) {
+                    continue;
+                }
+                String subject = rule.anchored()
+                        ? rule.base().relativize(path).toString().replace('\\', '/')
+                        : name;
+                if (rule.regex().matcher(subject).matches()) {
+                    return !rule.negated();
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<Rule> parse(Path base, List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (String raw : lines) {
+            String line = raw.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            boolean negated = line.startsWith("!");
+            if (negated) {
+                line = line.substring(1);
+            } else if (line.startsWith("\\#") || line.startsWith("\\!")) {
+                line = line.substring(1);
+            }
+            boolean directoryOnly = line.endsWith("/");
+            if (directoryOnly) {
+                line = line.substring(0, line.length() - 1);
+            }
+            boolean anchored = line.contains("/");
+            if (line.startsWith("/")) {
+                line = line.substring(1);
+            }
+            if (line.isEmpty()) {
+                continue;
+            }
+            rules.add(new Rule(base, Pattern.compile(toRegex(line)), negated, directoryOnly, anchored));
+        }
+        return rules;
+    }
+
+    /**
+     * Translates a gitignore glob into a regex over '/'-separated relative paths.
+     */
+    static String toRegex(String glob) {
+        StringBuilder re = new StringBuilder();
+        int len = glob.length();
+        for (int i = 0; i < len; i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                boolean doubleStar = i + 1 < len && glob.charAt(i + 1) == '*';
+                boolean segmentStart = i == 0 || glob.charAt(i - 1) == '/';
+                if (doubleStar && segmentStart && i + 2 < len && glob.charAt(i + 2) == '/') {
+                    re.append("(?:.*/)?"); // "**/" - zero or more directories
+                    i += 2;
+                } else if (doubleStar && segmentStart && i + 2 == len) {
+                    re.append(".*"); // trailing "**" - everything inside
+                    i += 1;
+                } else {
+                    re.append("[^/]*");
+                    if (doubleStar) {
+                        i += 1; // any other "**" is a plain '*'
+                    }
+                }
+            } else if (c == '?') {
+                re.append("[^/]");
+            } else if (c == '[') {
+                int end = classEnd(glob, i);
+                if (end < 0) {
+                    re.append("\\[");
+                } else {
+                    String body = glob.substring(i + 1, end);
+                    boolean negate = body.startsWith("!") || body.startsWith("^");
+                    if (negate) {
+                        body = body.substring(1);
+                    }
+                    re.append('[').append(negate ? "^" : "")
+                            .append(body.replace("\\", "\\\\").replace("[", "\\[").replace("&", "\\&"))
+                            .append(']');
+                    i = end;
+                }
+            } else if (c == '\\' && i + 1 < len) {
+                appendLiteral(re, glob.charAt(++i));
+            } else {
+                appendLiteral(re, c);
+            }
+        }
+        return re.toString();
+    }
+
+    private static int classEnd(String glob, int open) {
+        int j = open + 1;
+        if (j < glob.length() && (glob.charAt(j) == '!' || glob.charAt(j) == '^')) {
+            j++;
+        }
+        if (j < glob.length() && glob.charAt(j) == ']') {
+            j++; // ']' right after the opening bracket is a literal member
+        }
+        return glob.indexOf(']', j);
+    }
+
+    private static void appendLiteral(StringBuilder re, char c) {
+        if ("\\.[]{}()*+-?^$|&".indexOf(c) >= 0) {
+            re.append('\\');
+        }
+        re.append(c);
+    }
+}
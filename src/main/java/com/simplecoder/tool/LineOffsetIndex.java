@@ -0,0 +1,380 @@
+package com.simplecoder.tool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sparse line-offset index that lets readFile fetch a line range without reading the whole file.
+ *
+ * <p>On first access a file is scanned once and the byte offset of every {@code stride}-th line start is
+ * recorded (e.g. lines 1, 1025, 2049, ...). A range read seeks to the nearest checkpoint at or before the first
+ * requested line, skips at most {@code stride - 1} lines and decodes only the requested window. Entries are
+ * validated against the file's mtime, size and file key (inode) on every call and rebuilt when they differ;
+ * the index cache keeps the most recently used {@code max-files} files.
+ *
+ * <p>Tail reads ({@link #readTail(Path, int)}) do not use the index: they memory-map the end of the file and scan
+ * backward for terminators, so their cost depends on the lines returned, not on the file size.
+ *
+ * <p>Line terminators match {@code Files.readAllLines}: "\n", "\r\n" and a lone "\r". Lines are decoded as
+ * strict UTF-8 - malformed input raises {@link java.nio.charset.CharacterCodingException}, but only for the
+ * decoded window.
+ */
+@Slf4j
+@Component
+public class LineOffsetIndex {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int TAIL_WINDOW = 1024 * 1024;
+
+    private final int stride;
+    private final Map<Path, Offsets> cache;
+
+    /**
+     * Checkpoints of one file version. {@code checkpoints[k]} is the byte offset where line {@code k * stride + 1}
+     * starts.
+     */
+    private record Offsets(long modifiedMillis, long size, Object fileKey, int lineCount, long[] checkpoints) {
+
+        boolean matches(BasicFileAttributes attrs) {
+            return attrs.lastModifiedTime().toMillis() == modifiedMillis && attrs.size() == size
+                    && Objects.equals(attrs.fileKey(), fileKey);
+        }
+    }
+
+    public LineOffsetIndex(
+            @Value("${simple-coder.read.line-index.stride:1024}") int stride,
+            @Value("${simple-coder.read.line-index.max-files:256}") int maxFiles) {
+        this.stride = stride;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Offsets> eldest) {
+                return size() > maxFiles;
+            }
+        });
+        log.info("LineOffsetIndex initialized with stride={}, max-files={}", stride, maxFiles);
+    }
+
+    /**
+     * Last lines of a file.
+     *
+     * @param lines           the lines without terminators, in file order
+     * @param totalLines      line count of the file if an index for its current version was already cached, else -1
+     *                        (a tail read never builds one - that would scan the whole file)
+     * @param hasEarlierLines whether the file has lines before the first returned one
+     */
+    public record Tail(List<String> lines, int totalLines, boolean hasEarlierLines) {
+    }
+
+    /**
+     * Reads bytes at an absolute position, like {@link FileChannel#read(ByteBuffer, long)}.
+     */
+    @FunctionalInterface
+    private interface Source {
+        int read(ByteBuffer dst, long position) throws IOException;
+    }
+
+    /**
+     * @return number of lines in the file (as {@code Files.readAllLines(file).size()} would report)
+     */
+    public int lineCount(Path file) throws IOException {
+        return lineCount(file, null);
+    }
+
+    /**
+     * Same as {@link #lineCount(Path)}, scanning {@code content} instead of the file if an index must be built.
+     * The index is keyed by the attributes the content was validated against, not by a fresh stat, so a file
+     * changed since the content was read is never indexed with the older bytes.
+     *
+     * @param content file content from {@link FileContentCache}, or null to read the file
+     */
+    public int lineCount(Path file, FileContentCache.Content content) throws IOException {
+        return offsets(file, content).lineCount();
+    }
+
+    /**
+     * Reads up to {@code count} lines starting at 1-based {@code startLine}.
+     *
+     * @return the lines without terminators; fewer than {@code count} if the file ends first
+     */
+    public List<String> readLines(Path file, int startLine, int count) throws IOException {
+        return readLines(file, null, startLine, count);
+    }
+
+    /**
+     * Same as {@link #readLines(Path, int, int)}, decoding from {@code content} instead of the file.
+     *
+     * @param content file content from {@link FileContentCache}, or null to read the file
+     */
+    public List<String> readLines(Path file, FileContentCache.Content content, int startLine, int count) throws IOException {
+        Offsets offsets = offsets(file, content);
+        List<String> lines = new ArrayList<>(Math.min(count, 4096));
+        if (startLine < 1 || startLine > offsets.lineCount() || count <= 0) {
+            return lines;
+        }
+
+        int firstIndex = startLine - 1;
+        int checkpoint = firstIndex / stride;
+        int toSkip = firstIndex - checkpoint * stride;
+
+        long from = offsets.checkpoints()[checkpoint];
+        if (content != null) {
+            readWindow(new LineScanner(inMemory(content.bytes()), from), toSkip, count, lines);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                readWindow(new LineScanner(channel::read, from), toSkip, count, lines);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the last {@code count} lines of a file.
+     */
+    public Tail readTail(Path file, int count) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        Offsets cached = cache.get(file);
+        int totalLines = cached != null && cached.matches(attrs) ? cached.lineCount() : -1;
+        List<String> lines = new ArrayList<>(Math.min(count, 4096));
+        if (count <= 0) {
+            return new Tail(lines, totalLines, totalLines > 0);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new Tail(lines, totalLines, false);
+            }
+            long start = tailStart(channel, size, count);
+            readWindow(new LineScanner(channel::read, start), 0, count, lines);
+            return new Tail(lines, totalLines, start > 0);
+        }
+    }
+
+    /**
+     * Finds the byte offset where the {@code count}-th line from the end starts, scanning memory-mapped windows
+     * backward from the end of the file.
+     *
+     * <p>A line starts after every "\n" and after every "\r" not followed by "\n" - except at the end of the file,
+     * where the terminator closes the last line instead of opening a new one.
+     */
+    private static long tailStart(FileChannel channel, long size, int count) throws IOException {
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+        channel.read(lastByte, size - 1);
+        byte next = lastByte.get(0); // byte following the current position
+        int found = 0;
+        long windowEnd = size - 1;
+        while (windowEnd > 0) {
+            long windowStart = Math.max(0, windowEnd - TAIL_WINDOW);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            for (int i = (int) (windowEnd - windowStart) - 1; i >= 0; i--) {
+                byte b = window.get(i);
+                if (b == '\n' || (b == '\r' && next != '\n')) {
+                    if (++found == count) {
+                        return windowStart + i + 1;
+                    }
+                }
+                next = b;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Tail read interrupted");
+            }
+            windowEnd = windowStart;
+        }
+        return 0;
+    }
+
+    private static void readWindow(LineScanner scanner, int toSkip, int count, List<String> lines) throws IOException {
+        for (int i = 0; i < toSkip && scanner.skipLine(); i++) {
+            // skip to the first requested line
+        }
+        while (lines.size() < count) {
+            String line = scanner.readLine();
+            if (line == null) {
+                break;
+            }
+            lines.add(line);
+        }
+    }
+
+    private Offsets offsets(Path file, FileContentCache.Content content) throws IOException {
+        if (content != null && content.attributes() == null) {
+            // The bytes match no known file version: index them for this call only
+            return build(file, inMemory(content.bytes()), null);
+        }
+        BasicFileAttributes attrs = content != null
+                ? content.attributes()
+                : Files.readAttributes(file, BasicFileAttributes.class);
+        Offsets cached = cache.get(file);
+        if (cached != null && cached.matches(attrs)) {
+            return cached;
+        }
+        Offsets built;
+        if (content != null) {
+            built = build(file, inMemory(content.bytes()), attrs);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                built = build(file, channel::read, attrs);
+            }
+        }
+        cache.put(file, built);
+        return built;
+    }
+
+    private static Source inMemory(byte[] content) {
+        return (dst, position) -> {
+            if (position >= content.length) {
+                return -1;
+            }
+            int n = (int) Math.min(dst.remaining(), content.length - position);
+            dst.put(content, (int) position, n);
+            return n;
+        };
+    }
+
+    /**
+     * @param attrs version the source belongs to, or null if unknown (the result must not be cached)
+     */
+    private Offsets build(Path file, Source source, BasicFileAttributes attrs) throws IOException {
+        long start = System.nanoTime();
+        long[] checkpoints = new long[16];
+        int completed = 0;
+        boolean inLine = false;
+        boolean afterCR = false;
+        long position = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        while (source.read(buffer.clear(), position) > 0) {
+            byte[] bytes = buffer.array();
+            int limit = buffer.position();
+            for (int i = 0; i < limit; i++, position++) {
+                byte b = bytes[i];
+                if (afterCR) {
+                    afterCR = false;
+                    if (b == '\n') {
+                        continue; // second half of "\r\n"
+                    }
+                }
+                if (!inLine) {
+                    inLine = true;
+                    if (completed % stride == 0) {
+                        int k = completed / stride;
+                        if (k == checkpoints.length) {
+                            checkpoints = Arrays.copyOf(checkpoints, k * 2);
+                        }
+                        checkpoints[k] = position;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    completed++;
+                    inLine = false;
+                    afterCR = b == '\r';
+                }
+            }
+        }
+
+        int lineCount = completed + (inLine ? 1 : 0);
+        int used = lineCount == 0 ? 0 : (lineCount - 1) / stride + 1;
+        log.debug("LineOffsetIndex built for {}: {} lines, {} checkpoints in {} ms",
+                file, lineCount, used, (System.nanoTime() - start) / 1_000_000);
+        long[] trimmed = Arrays.copyOf(checkpoints, used);
+        return attrs != null
+                ? new Offsets(attrs.lastModifiedTime().toMillis(), attrs.size(), attrs.fileKey(), lineCount, trimmed)
+                : new Offsets(-1, -1, null, lineCount, trimmed);
+    }
+
+    /**
+     * Sequential line reader over a source, starting at a known line start.
+     */
+    private static final class LineScanner {
+        private final Source source;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).limit(0);
+        private long position;
+        private boolean afterCR;
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        LineScanner(Source source, long position) {
+            this.source = source;
+            this.position = position;
+        }
+
+        boolean skipLine() throws IOException {
+            return scanLine(false);
+        }
+
+        String readLine() throws IOException {
+            if (!scanLine(true)) {
+                return null;
+            }
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(line, 0, lineLength))
+                    .toString();
+        }
+
+        /**
+         * Consumes one line and its terminator.
+         *
+         * @return false if the file ended before any byte of a new line
+         */
+        private boolean scanLine(boolean keep) throws IOException {
+            lineLength = 0;
+            boolean any = false;
+            while (true) {
+                if (!buffer.hasRemaining() && !fill()) {
+                    return any;
+                }
+                byte b = buffer.get();
+                if (afterCR) {
+                    afterCR = false;
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                any = true;
+                if (b == '\n' || b == '\r') {
+                    afterCR = b == '\r';
+                    return true;
+                }
+                if (keep) {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+        }
+
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int read = source.read(buffer, position);
+            buffer.flip();
+            if (read <= 0) {
+                return false;
+            }
+            position += read;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.simplecoder.tool;
+
+import java.util.List;
+
+/**
+ * Renders tool output lines directly into a pre-sized builder.
+ *
+ * <p>Output is identical to the former {@code String.format} calls ({@code "%<width>d | %s"} for numbered file
+ * lines, {@code "%s:%d:%s"} for search matches), but without parsing a format string, boxing the line number or
+ * creating a Formatter and intermediate Strings per line: a 500-line read allocates the result and one builder.
+ */
+public final class LineRenderer {
+
+    /**
+     * Search snippets longer than this (after trimming) are cut and marked with "...".
+     */
+    public static final int MAX_SNIPPET_CHARS = 100;
+
+    private static final String SEPARATOR = " | ";
+    private static final String ELLIPSIS = "...";
+
+    private LineRenderer() {
+    }
+
+    /**
+     * Renders lines as {@code "<number> | <line>"} joined by '\n', numbers right-aligned to the widest one.
+     *
+     * @param startLineNum number of the first line (may be negative, e.g. for tail reads numbered from the end)
+     */
+    public static String numberedLines(List<String> lines, int startLineNum) {
+        StringBuilder out = new StringBuilder(numberedLinesLength(lines, startLineNum));
+        appendNumberedLines(out, lines, startLineNum);
+        return out.toString();
+    }
+
+    /**
+     * Same as {@link #numberedLines(List, int)}, appending to an existing builder.
+     */
+    public static void appendNumberedLines(StringBuilder out, List<String> lines, int startLineNum) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        int width = numberWidth(startLineNum, lines.size());
+        out.ensureCapacity(out.length() + numberedLinesLength(lines, startLineNum));
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                out.append('\n');
+            }
+            int lineNum = startLineNum + i;
+            for (int pad = width - stringSize(lineNum); pad > 0; pad--) {
+                out.append(' ');
+            }
+            out.append(lineNum).append(SEPARATOR).append(lines.get(i));
+        }
+    }
+
+    /**
+     * Renders a search match as {@code "<path>:<line>:<snippet>"}, where the snippet is the trimmed line cut to
+     * {@link #MAX_SNIPPET_CHARS} characters.
+     */
+    public static String match(String relativePath, int lineNumber, String line) {
+        // Bounds of line.trim() without creating the trimmed copy
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        boolean cut = end - start > MAX_SNIPPET_CHARS;
+        if (cut) {
+            end = start + MAX_SNIPPET_CHARS;
+        }
+
+        StringBuilder out = new StringBuilder(relativePath.length() + stringSize(lineNumber) + 2 + (end - start)
+                + (cut ? ELLIPSIS.length() : 0));
+        out.append(relativePath).append(':').append(lineNumber).append(':').append(line, start, end);
+        if (cut) {
+            out.append(ELLIPSIS);
+        }
+        return out.toString();
+    }
+
+    private static int numberedLinesLength(List<String> lines, int startLineNum) {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        int perLine = numberWidth(startLineNum, lines.size()) + SEPARATOR.length() + 1;
+        int length = perLine * lines.size() - 1;
+        for (String line : lines) {
+            length += line.length();
+        }
+        return length;
+    }
+
+    private static int numberWidth(int startLineNum, int count) {
+        return Math.max(stringSize(startLineNum), stringSize(startLineNum + count - 1));
+    }
+
+    /**
+     * Number of characters of {@code Integer.toString(value)}.
+     */
+    static int stringSize(int value) {
+        long v = value;
+        int size = 1;
+        if (v < 0) {
+            size++;
+            v = -v;
+        }
+        while (v >= 10) {
+            v /= 10;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,210 @@
+package com.simplecoder.tool;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte-level literal search using Boyer-Moore-Horspool over chunked {@link FileChannel} reads.
+ *
+ * <p>Compared to decoding a file with Files.readAllLines and running a quoted regex on every line:
+ * - Files are scanned as raw UTF-8 bytes; only lines containing a match are decoded
+ * - Invalid UTF-8 never aborts the scan (malformed bytes in a matched line decode to U+FFFD)
+ * - Case-insensitive mode folds ASCII letters only, the same rule as Pattern.CASE_INSENSITIVE
+ *
+ * <p>Lines are split on '\n' with a trailing '\r' stripped, matching readAllLines for LF and CRLF files.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class LiteralSearcher {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int[] IDENTITY = new int[256];
+    private static final int[] ASCII_FOLD = new int[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            IDENTITY[b] = b;
+            ASCII_FOLD[b] = (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+        }
+    }
+
+    private final int[] needle;
+    private final int[] fold;
+    private final int[] skip = new int[256];
+    private final boolean searchable;
+
+    /**
+     * @param literal       text to find (a literal containing a line break can never match a single line)
+     * @param caseSensitive whether ASCII case must match exactly
+     */
+    public LiteralSearcher(String literal, boolean caseSensitive) {
+        this.fold = caseSensitive ? IDENTITY : ASCII_FOLD;
+        byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+        this.needle = new int[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            needle[i] = fold[bytes[i] & 0xFF];
+        }
+        this.searchable = bytes.length > 0 && literal.indexOf('\n') < 0 && literal.indexOf('\r') < 0;
+
+        Arrays.fill(skip, needle.length);
+        for (int i = 0; i < needle.length - 1; i++) {
+            skip[needle[i]] = needle.length - 1 - i;
+        }
+    }
+
+    /**
+     * Receives matching lines in file order.
+     */
+    @FunctionalInterface
+    public interface LineSink {
+        /**
+         * @param lineNumber 1-based line number
+         * @param line       decoded line content without terminator
+         * @return true to keep scanning, false to stop
+         */
+        boolean accept(int lineNumber, String line);
+    }
+
+    /**
+     * Scans a file and reports every line containing the literal.
+     *
+     * @param file file to scan
+     * @param sink receives matching lines; returning false stops the scan
+     * @return number of lines known to exist: the total line count if the scan completed, otherwise the stop
+     * line plus one if any content follows it (enough to tell whether lines remain after the stop)
+     * @throws IOException if the file cannot be read (including interruption of the calling thread)
+     */
+    public int search(Path file, LineSink sink) throws IOException {
+        if (!searchable) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, channel.size(), file.toString(), sink);
+        }
+    }
+
+    /**
+     * Same as {@link #search(Path, LineSink)} for content already in memory (e.g. from {@link FileContentCache}).
+     */
+    public int search(byte[] content, LineSink sink) throws IOException {
+        if (!searchable) {
+            return 0;
+        }
+        return scan(Channels.newChannel(new ByteArrayInputStream(content)), content.length, "in-memory content", sink);
+    }
+
+    private int scan(ReadableByteChannel channel, long size, String source, LineSink sink) throws IOException {
+        byte[] buf = new byte[CHUNK_SIZE];
+        int len = 0;
+        long base = 0;          // file offset of buf[0]
+        int lineNumber = 1;     // line number of buf[0]
+        boolean eof = false;
+        boolean endsWithNewline = true;
+
+        while (true) {
+            if (!eof) {
+                if (len == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2); // single line longer than the buffer
+                }
+                int read = channel.read(ByteBuffer.wrap(buf, len, buf.length - len));
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    len += read;
+                }
+            }
+
+            int limit = eof ? len : lastNewline(buf, len) + 1;
+            if (limit == 0) {
+                if (eof) {
+                    break;
+                }
+                continue; // no complete line yet - read more
+            }
+
+            int pos = 0;
+            int counted = 0;
+            int match;
+            while ((match = indexOf(buf, pos, limit)) >= 0) {
+                int lineStart = match;
+                while (lineStart > 0 && buf[lineStart - 1] != '\n') {
+                    lineStart--;
+                }
+                int lineEnd = match;
+                while (lineEnd < limit && buf[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                lineNumber += countNewlines(buf, counted, lineStart);
+                counted = lineStart;
+
+                int contentEnd = lineEnd > lineStart && buf[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                String line = new String(buf, lineStart, contentEnd - lineStart, StandardCharsets.UTF_8);
+                pos = Math.min(lineEnd + 1, limit);
+                if (!sink.accept(lineNumber, line)) {
+                    return base + pos < size ? lineNumber + 1 : lineNumber;
+                }
+            }
+            lineNumber += countNewlines(buf, counted, limit);
+            endsWithNewline = buf[limit - 1] == '\n';
+
+            System.arraycopy(buf, limit, buf, 0, len - limit);
+            len -= limit;
+            base += limit;
+            if (eof && len == 0) {
+                break;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Literal search interrupted: " + source);
+            }
+        }
+        // lineNumber is now one past the last '\n'; a trailing line without terminator also counts
+        return endsWithNewline ? lineNumber - 1 : lineNumber;
+    }
+
+    /**
+     * Boyer-Moore-Horspool search for the needle within buf[from, to).
+     */
+    int indexOf(byte[] buf, int from, int to) {
+        int m = needle.length;
+        int last = m - 1;
+        int i = from;
+        while (i <= to - m) {
+            int j = last;
+            while (fold[buf[i + j] & 0xFF] == needle[j]) {
+                if (j == 0) {
+                    return i;
+                }
+                j--;
+            }
+            i += skip[fold[buf[i + last] & 0xFF]];
+        }
+        return -1;
+    }
+
+    private static int lastNewline(byte[] buf, int len) {
+        for (int i = len - 1; i >= 0; i--) {
+            if (buf[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int countNewlines(byte[] buf, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (buf[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
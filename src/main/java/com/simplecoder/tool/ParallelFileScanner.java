@@ -0,0 +1,123 @@
+package com.simplecoder.tool;
+
+import com.simplecoder.exception.SystemException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Scans files on virtual threads while delivering results in the original (walk) order.
+ * Items are usually paths, but any independent per-item I/O (e.g. the entries of a readFiles batch) works.
+ *
+ * <p>Design:
+ * - The caller's iterator is consumed lazily; at most {@code parallelism * 4} files are in flight at once
+ * - Results are handed to the consumer strictly in iterator order, so output is identical to a sequential scan
+ * - When the consumer returns false (e.g. result cap reached) all in-flight scans are cancelled (interrupted)
+ *   and no further files are pulled from the iterator
+ *
+ * <p>With parallelism &lt;= 1 everything runs inline on the calling thread.
+ */
+@Slf4j
+@Component
+public class ParallelFileScanner {
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ParallelFileScanner(@Value("${simple-coder.search.parallelism:0}") int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = this.parallelism > 1 ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        log.info("ParallelFileScanner initialized with parallelism={}", this.parallelism);
+    }
+
+    /**
+     * Creates a scanner that runs every scan inline on the calling thread.
+     */
+    public static ParallelFileScanner sequential() {
+        return new ParallelFileScanner(1);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Callback receiving per-file results in walk order.
+     *
+     * @param <T> per-file result type
+     */
+    @FunctionalInterface
+    public interface OrderedConsumer<T> {
+        /**
+         * @param result  scan result of the next file in order
+         * @param hasMore whether further files follow this one
+         * @return true to continue, false to stop and cancel all outstanding scans
+         */
+        boolean accept(T result, boolean hasMore);
+    }
+
+    /**
+     * Scans every file from the iterator and feeds results to the consumer in iterator order.
+     *
+     * @param files    files to scan (consumed lazily)
+     * @param scan     per-file work; should check {@link Thread#isInterrupted()} to stop early when cancelled
+     * @param consumer ordered result sink
+     * @param <S>      item type, usually {@link Path}
+     * @param <T>      per-file result type
+     */
+    public <S, T> void forEachOrdered(Iterator<S> files, Function<S, T> scan, OrderedConsumer<T> consumer) {
+        if (executor == null) {
+            while (files.hasNext()) {
+                T result = scan.apply(files.next());
+                if (!consumer.accept(result, files.hasNext())) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        int maxInFlight = parallelism * 4;
+        Deque<Future<T>> window = new ArrayDeque<>(maxInFlight);
+        try {
+            while (true) {
+                while (window.size() < maxInFlight && files.hasNext()) {
+                    S file = files.next();
+                    window.addLast(executor.submit(() -> scan.apply(file)));
+                }
+                Future<T> head = window.pollFirst();
+                if (head == null) {
+                    return;
+                }
+                T result = head.get();
+                boolean hasMore = !window.isEmpty() || files.hasNext();
+                if (!consumer.accept(result, hasMore)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("File scan interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new SystemException("File scan failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            window.forEach(f -> f.cancel(true));
+        }
+    }
+}
@@ -55,6 +55,16 @@ public class PathValidator {
         return normalizedPath;
     }
 
+    /**
+     * Checks again that an already validated path resolves inside the repository, for callers about to create
+     * it (or its parent directories): a directory on the way may have been replaced by a symlink since.
+     *
+     * @throws SecurityViolationException if path now resolves outside repository root
+     */
+    public void recheck(Path path) {
+        ensureWithinRepo(resolveSymlinks(path));
+    }
+
     private void validateNotEmpty(String pathString) {
         if (pathString == null || pathString.trim().isEmpty()) {
             throw new IllegalArgumentException("Path cannot be null or empty");
@@ -74,9 +84,16 @@ public class PathValidator {
         try {
             return path.toRealPath();
         } catch (IOException e) {
-            // File doesn't exist yet, use normalized path
-            // This is OK for operations like create/write
+            // File doesn't exist yet (create/write): resolve its nearest existing ancestor instead, so a
+            // symlinked directory on the way cannot lead outside the repository
             log.debug("Path does not exist (yet): {}", path);
+            for (Path ancestor = path.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                try {
+                    return ancestor.toRealPath().resolve(ancestor.relativize(path));
+                } catch (IOException notThere) {
+                    // keep walking up
+                }
+            }
             return path;
         }
     }
@@ -0,0 +1,342 @@
+package com.simplecoder.tool;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Extracts literal substrings that every match of a regex must contain.
+ *
+ * <p>The result is a conjunction of clauses: every clause must be satisfied, and a clause is satisfied
+ * when at least one of its alternatives occurs. For example {@code class\s+(Foo|Bar)Impl} yields
+ * {@code [[class], [Foo, Bar], [Impl]]}.
+ *
+ * <p>The analysis is conservative - it only drops information, never invents it:
+ * - Character classes, escapes like \d and '.' end the current literal run
+ * - Optional atoms ('?', '*', '{0,n}') are dropped, including whole optional groups
+ * - An alternation contributes one clause holding the best literal of each branch, or nothing if any
+ *   branch has no literal
+ * - Inline flags ({@code (?i)}, {@code (?x:...)}) make the whole pattern unanalyzable; lookaround
+ *   contents are ignored
+ *
+ * <p>An empty result never means "no match" - it means the caller must scan every file and line.
+ */
+public final class RegexLiterals {
+
+    private RegexLiterals() {
+    }
+
+    /**
+     * Returns the literal clauses required by every match of the given regex.
+     *
+     * @param regex java.util.regex pattern source
+     * @return required clauses (possibly empty if nothing could be proven)
+     */
+    public static List<List<String>> requiredClauses(String regex) {
+        Parser parser = new Parser(regex);
+        try {
+            List<List<String>> clauses = parser.parseAlternation();
+            return parser.unanalyzable ? List.of() : clauses;
+        } catch (RuntimeException e) {
+            // Malformed input - Pattern.compile reports the real error; the prefilter simply gives up
+            return List.of();
+        }
+    }
+
+    /**
+     * Returns the literals of all single-alternative clauses (each one must appear in every match).
+     *
+     * @param regex java.util.regex pattern source
+     * @return required literals (possibly empty if none could be proven)
+     */
+    public static List<String> requiredLiterals(String regex) {
+        List<String> literals = new ArrayList<>();
+        for (List<String> clause : requiredClauses(regex)) {
+            if (clause.size() == 1) {
+                literals.add(clause.get(0));
+            }
+        }
+        return literals;
+    }
+
+    private static final class Parser {
+        private final String regex;
+        private final int n;
+        private int i;
+        private boolean unanalyzable;
+
+        Parser(String regex) {
+            this.regex = regex;
+            this.n = regex.length();
+        }
+
+        List<List<String>> parseAlternation() {
+            List<List<List<String>>> branches = new ArrayList<>();
+            branches.add(parseSequence());
+            while (i < n && regex.charAt(i) == '|') {
+                i++;
+                branches.add(parseSequence());
+            }
+            if (branches.size() == 1) {
+                return branches.get(0);
+            }
+
+            LinkedHashSet<String> anyOf = new LinkedHashSet<>();
+            for (List<List<String>> branch : branches) {
+                List<String> best = bestClause(branch);
+                if (best == null) {
+                    return List.of(); // this branch can match without any literal
+                }
+                anyOf.addAll(best);
+            }
+            return List.of(List.copyOf(anyOf));
+        }
+
+        List<List<String>> parseSequence() {
+            List<List<String>> clauses = new ArrayList<>();
+            StringBuilder run = new StringBuilder();
+
+            while (i < n) {
+                char c = regex.charAt(i);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                switch (c) {
+                    case '\\' -> {
+                        if (i + 1 >= n) {
+                            unanalyzable = true;
+                            i = n;
+                            continue;
+                        }
+                        char next = regex.charAt(i + 1);
+                        if (next == 'Q') {
+                            int end = regex.indexOf("\\E", i + 2);
+                            String quoted = end == -1 ? regex.substring(i + 2) : regex.substring(i + 2, end);
+                            i = end == -1 ? n : end + 2;
+                            if (quoted.isEmpty() && i < n && "?*+{".indexOf(regex.charAt(i)) >= 0) {
+                                // The quantifier applies to whatever precedes the empty quote - not worth modelling
+                                unanalyzable = true;
+                                i = n;
+                                continue;
+                            }
+                            run.append(quoted);
+                            if (!quoted.isEmpty()) {
+                                // A quantifier after \E applies to the last quoted character only
+                                applyQuantifierToLastChar(run, clauses);
+                            }
+                            continue;
+                        }
+                        if (Character.isLetterOrDigit(next)) {
+                            // \d, \w, \b, \p{..}, back-references etc. - not a literal
+                            flush(run, clauses);
+                            i = skipEscape(i);
+                            i = skipQuantifier(i);
+                            continue;
+                        }
+                        run.append(next);
+                        i += 2;
+                        applyQuantifierToLastChar(run, clauses);
+                    }
+                    case '[' -> {
+                        flush(run, clauses);
+                        i = skipCharClass(i);
+                        i = skipQuantifier(i);
+                    }
+                    case '(' -> parseGroup(run, clauses);
+                    case '.', '^', '$' -> {
+                        flush(run, clauses);
+                        i = skipQuantifier(i + 1);
+                    }
+                    case '?', '*', '+', '{' -> i = skipQuantifier(i);
+                    default -> {
+                        run.append(c);
+                        i++;
+                        applyQuantifierToLastChar(run, clauses);
+                    }
+                }
+            }
+            flush(run, clauses);
+            return clauses;
+        }
+
+        private void parseGroup(StringBuilder run, List<List<String>> clauses) {
+            flush(run, clauses);
+            boolean keep = true;
+            i++;
+            if (i < n && regex.charAt(i) == '?') {
+                char kind = i + 1 < n ? regex.charAt(i + 1) : ')';
+                if (kind == ':' || kind == '>') {
+                    i += 2;
+                } else if (kind == '=' || kind == '!') {
+                    i += 2;
+                    keep = false;
+                } else if (kind == '<' && i + 2 < n && (regex.charAt(i + 2) == '=' || regex.charAt(i + 2) == '!')) {
+                    i += 3;
+                    keep = false;
+                } else if (kind == '<') {
+                    int close = regex.indexOf('>', i);
+                    i = close == -1 ? n : close + 1;
+                } else {
+                    // Inline flags such as (?i) change matching semantics we do not model
+                    unanalyzable = true;
+                    i = n;
+                    return;
+                }
+            }
+
+            List<List<String>> inner = parseAlternation();
+            if (i < n && regex.charAt(i) == ')') {
+                i++;
+            }
+            if (keep && !isOptionalQuantifier(i)) {
+                clauses.addAll(inner);
+            }
+            i = skipQuantifier(i);
+        }
+
+        /**
+         * Handles a quantifier following the single character just appended to the run.
+         */
+        private void applyQuantifierToLastChar(StringBuilder run, List<List<String>> clauses) {
+            if (i >= n || "?*+{".indexOf(regex.charAt(i)) < 0) {
+                return;
+            }
+            boolean optional = isOptionalQuantifier(i);
+            char last = run.charAt(run.length() - 1);
+            run.setLength(run.length() - 1);
+            flush(run, clauses);
+            if (!optional) {
+                // The character appears at least once, but the run cannot continue across the repetition
+                run.append(last);
+                flush(run, clauses);
+            }
+            i = skipQuantifier(i);
+        }
+
+        private boolean isOptionalQuantifier(int at) {
+            if (at >= n) {
+                return false;
+            }
+            char q = regex.charAt(at);
+            if (q == '?' || q == '*') {
+                return true;
+            }
+            if (q == '{') {
+                int j = at + 1;
+                while (j < n && regex.charAt(j) == '0') {
+                    j++;
+                }
+                return j > at + 1 && j < n && (regex.charAt(j) == ',' || regex.charAt(j) == '}');
+            }
+            return false;
+        }
+
+        private int skipQuantifier(int at) {
+            if (at >= n) {
+                return at;
+            }
+            char q = regex.charAt(at);
+            if (q == '{') {
+                int close = regex.indexOf('}', at);
+                at = close == -1 ? n : close + 1;
+            } else if (q == '?' || q == '*' || q == '+') {
+                at++;
+            } else {
+                return at;
+            }
+            // Lazy or possessive modifier
+            if (at < n && (regex.charAt(at) == '?' || regex.charAt(at) == '+')) {
+                at++;
+            }
+            return at;
+        }
+
+        private int skipCharClass(int at) {
+            int depth = 0;
+            int j = at;
+            while (j < n) {
+                char c = regex.charAt(j);
+                if (c == '\\') {
+                    j += 2;
+                    continue;
+                }
+                if (c == '[') {
+                    depth++;
+                    // A ']' right after '[' or '[^' is a literal member
+                    if (j + 1 < n && regex.charAt(j + 1) == '^') {
+                        j++;
+                    }
+                    if (j + 1 < n && regex.charAt(j + 1) == ']') {
+                        j++;
+                    }
+                } else if (c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return j + 1;
+                    }
+                }
+                j++;
+            }
+            return n;
+        }
+
+        /**
+         * Skips a non-literal escape starting at the backslash, including its arguments (e.g. \x41, \p{Alpha}, \k<name>).
+         */
+        private int skipEscape(int at) {
+            char kind = regex.charAt(at + 1);
+            int j = at + 2;
+            switch (kind) {
+                case 'p', 'P', 'N', 'x' -> {
+                    if (j < n && regex.charAt(j) == '{') {
+                        int close = regex.indexOf('}', j);
+                        return close == -1 ? n : close + 1;
+                    }
+                    return Math.min(j + (kind == 'x' ? 2 : 1), n);
+                }
+                case 'u' -> {
+                    return Math.min(j + 4, n);
+                }
+                case 'c' -> {
+                    return Math.min(j + 1, n);
+                }
+                case 'k' -> {
+                    int close = regex.indexOf('>', j);
+                    return close == -1 ? n : close + 1;
+                }
+                default -> {
+                    if (Character.isDigit(kind)) {
+                        // Octal escape or back-reference - swallow all following digits
+                        while (j < n && Character.isDigit(regex.charAt(j))) {
+                            j++;
+                        }
+                    }
+                    return j;
+                }
+            }
+        }
+
+        private static void flush(StringBuilder run, List<List<String>> clauses) {
+            if (!run.isEmpty()) {
+                clauses.add(List.of(run.toString()));
+                run.setLength(0);
+            }
+        }
+
+        /**
+         * Picks the most selective clause of a branch: the one whose shortest alternative is longest.
+         */
+        private static List<String> bestClause(List<List<String>> clauses) {
+            List<String> best = null;
+            int bestLength = 0;
+            for (List<String> clause : clauses) {
+                int shortest = clause.stream().mapToInt(String::length).min().orElse(0);
+                if (shortest > bestLength) {
+                    best = clause;
+                    bestLength = shortest;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.simplecoder.tool;
+
+import java.util.List;
+
+/**
+ * Cheap literal checks that run before java.util.regex in regex searches.
+ *
+ * <p>Built from the clauses found by {@link RegexLiterals}:
+ * - The anchor is the longest literal every match must contain. Files are scanned for it with the byte-level
+ *   {@link LiteralSearcher}, so a file without the anchor is rejected without decoding, and only lines containing
+ *   it are decoded and handed to the regex
+ * - {@link #mayMatch(String)} checks the remaining clauses on a decoded line before running the regex
+ *
+ * <p>Case-insensitive checks use {@link String#regionMatches(boolean, int, String, int, int)}, whose folding is a
+ * superset of Pattern.CASE_INSENSITIVE, so the prefilter can only keep extra lines, never drop a real match.
+ */
+public final class RegexPrefilter {
+
+    private final List<List<String>> clauses;
+    private final boolean caseSensitive;
+    private final LiteralSearcher anchor;
+
+    public RegexPrefilter(List<List<String>> clauses, boolean caseSensitive) {
+        this.clauses = clauses;
+        this.caseSensitive = caseSensitive;
+        String longest = null;
+        for (List<String> clause : clauses) {
+            if (clause.size() == 1 && (longest == null || clause.get(0).length() > longest.length())) {
+                longest = clause.get(0);
+            }
+        }
+        this.anchor = longest != null ? new LiteralSearcher(longest, caseSensitive) : null;
+    }
+
+    /**
+     * Returns the byte-level searcher for the anchor literal, or null if the regex has no single required literal.
+     */
+    public LiteralSearcher anchor() {
+        return anchor;
+    }
+
+    /**
+     * Returns false only if the line cannot match (some required clause is absent).
+     */
+    public boolean mayMatch(String line) {
+        for (List<String> clause : clauses) {
+            boolean satisfied = false;
+            for (String literal : clause) {
+                if (contains(line, literal)) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contains(String line, String literal) {
+        if (caseSensitive) {
+            return line.contains(literal);
+        }
+        int last = line.length() - literal.length();
+        for (int start = 0; start <= last; start++) {
+            if (line.regionMatches(true, start, literal, 0, literal.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
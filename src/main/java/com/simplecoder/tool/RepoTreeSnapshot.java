@@ -0,0 +1,259 @@
+package com.simplecoder.tool;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the repository's directory tree, kept current from {@link WatchService} events.
+ *
+ * <p>The tree is read once at startup on a background thread. After that, directory listings for walks
+ * (listFiles, searchText, searchMultiple) come from memory instead of {@code Files.list}. Only names and entry
+ * types are held; file contents are always read from disk.
+ *
+ * <p>Freshness rules:
+ * - Every directory is registered for CREATE/DELETE events; created directories are scanned and registered,
+ *   deleted ones are dropped with their subtree
+ * - On OVERFLOW (events were lost) the snapshot is marked stale and rebuilt from disk
+ * - While building or stale, and for directories it does not know, {@link #list(Path)} reads the disk
+ * - If the watcher cannot be set up (e.g. the OS watch limit is reached) every listing reads the disk
+ *
+ * <p>Directories excluded by {@link IgnoreRules} are listed but not descended into or watched (node_modules and
+ * build outputs would dominate memory and OS watch handles); walks that enter them read the disk.
+ *
+ * <p>Events arrive asynchronously, so an entry created outside the agent may be missing from a listing
+ * for a short moment (the OS event latency - milliseconds with inotify).
+ */
+@Slf4j
+@Component
+public class RepoTreeSnapshot implements SortedFileWalker.Lister {
+
+    private final Path repoRoot;
+    private final IgnoreRules ignoreRules;
+    private final boolean enabled;
+    private final Map<Path, List<SortedFileWalker.Entry>> directories = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public RepoTreeSnapshot(
+            PathValidator pathValidator,
+            IgnoreRules ignoreRules,
+            @Value("${simple-coder.tree-snapshot.enabled:true}") boolean enabled) {
+        this.repoRoot = pathValidator.getRepoRoot();
+        this.ignoreRules = ignoreRules;
+        this.enabled = enabled;
+        log.info("RepoTreeSnapshot initialized with enabled={}", enabled);
+    }
+
+    /**
+     * Creates a snapshot that never serves from memory (every listing reads the disk).
+     */
+    public static RepoTreeSnapshot disabled(PathValidator pathValidator) {
+        return new RepoTreeSnapshot(pathValidator, IgnoreRules.none(pathValidator), false);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("RepoTreeSnapshot disabled - file watching unavailable: {}", e.getMessage());
+            return;
+        }
+        watcher = Thread.ofPlatform().daemon().name("repo-tree-watcher").start(this::watchLoop);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ready = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Failed to close watch service", e);
+            }
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    /**
+     * Whether listings are currently served from memory.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the sorted entries of a directory - from memory when the snapshot is current and knows
+     * the directory, otherwise from disk.
+     */
+    @Override
+    public List<SortedFileWalker.Entry> list(Path dir) throws IOException {
+        if (ready) {
+            List<SortedFileWalker.Entry> entries = directories.get(dir);
+            if (entries != null) {
+                return entries;
+            }
+        }
+        return SortedFileWalker.DISK.list(dir);
+    }
+
+    private void watchLoop() {
+        rebuild();
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                } else if (event.context() instanceof Path name) {
+                    applyEvent(dir, dir.resolve(name), event.kind());
+                }
+            }
+            if (!key.reset()) {
+                watchKeys.remove(dir);
+            }
+            if (overflow) {
+                log.warn("RepoTreeSnapshot lost file events (overflow) - rebuilding from disk");
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * Re-reads the whole tree. Listings fall back to disk until it completes.
+     */
+    private void rebuild() {
+        ready = false;
+        long start = System.nanoTime();
+        watchKeys.values().forEach(WatchKey::cancel);
+        watchKeys.clear();
+        directories.clear();
+        try {
+            scanSubtree(repoRoot);
+        } catch (IOException e) {
+            // Typically the OS limit on watched directories - serve everything from disk instead
+            log.warn("RepoTreeSnapshot disabled - failed to watch repository: {}", e.getMessage());
+            watchKeys.values().forEach(WatchKey::cancel);
+            watchKeys.clear();
+            directories.clear();
+            return;
+        }
+        ready = true;
+        log.info("RepoTreeSnapshot built: {} directories in {} ms",
+                directories.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Registers and reads {@code root} and every directory below it. Registration happens before listing,
+     * so entries created concurrently are reported by an event even if the listing misses them.
+     */
+    private void scanSubtree(Path root) throws IOException {
+        Deque<Path> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Path dir = pending.pop();
+            watchKeys.put(dir, dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE));
+            List<SortedFileWalker.Entry> entries;
+            try {
+                entries = SortedFileWalker.DISK.list(dir);
+            } catch (IOException e) {
+                log.debug("Failed to list directory for snapshot: {}", dir, e);
+                continue; // unreadable or already deleted - listings for it go to disk
+            }
+            directories.put(dir, Collections.unmodifiableList(entries));
+            for (SortedFileWalker.Entry entry : ignoreRules.filter(dir, entries)) {
+                if (entry.directory()) {
+                    pending.push(entry.path());
+                }
+            }
+        }
+    }
+
+    private void applyEvent(Path dir, Path child, WatchEvent.Kind<?> kind) {
+        List<SortedFileWalker.Entry> current = directories.get(dir);
+        if (current == null) {
+            return;
+        }
+        List<SortedFileWalker.Entry> updated = new ArrayList<>(current);
+        boolean wasDirectory = directories.containsKey(child);
+        for (Iterator<SortedFileWalker.Entry> it = updated.iterator(); it.hasNext(); ) {
+            SortedFileWalker.Entry e = it.next();
+            if (e.path().equals(child)) {
+                wasDirectory |= e.directory();
+                it.remove();
+            }
+        }
+        if (wasDirectory) {
+            removeSubtree(child); // only directories have listings and watch keys to drop
+        }
+
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            SortedFileWalker.Entry entry = null;
+            try {
+                entry = SortedFileWalker.Entry.of(child);
+            } catch (IOException e) {
+                log.debug("Created entry already gone: {}", child); // a DELETE event follows
+            }
+            if (entry != null) {
+                updated.add(entry);
+                if (entry.directory() && !ignoreRules.filter(dir, List.of(entry)).isEmpty()) {
+                    try {
+                        scanSubtree(child);
+                    } catch (IOException e) {
+                        // Cannot watch the new directory - the snapshot would silently go stale, so stop serving it
+                        log.warn("RepoTreeSnapshot disabled - failed to watch {}: {}", child, e.getMessage());
+                        ready = false;
+                    }
+                }
+            }
+        }
+        updated.sort(SortedFileWalker.BY_NAME);
+        directories.put(dir, Collections.unmodifiableList(updated));
+    }
+
+    private void removeSubtree(Path root) {
+        directories.keySet().removeIf(p -> p.startsWith(root));
+        watchKeys.entrySet().removeIf(e -> {
+            if (e.getKey().startsWith(root)) {
+                e.getValue().cancel();
+                return true;
+            }
+            return false;
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.simplecoder.tool;
+
+import com.simplecoder.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+/**
+ * Opaque continuation token for paged tool results (listFiles, searchText).
+ *
+ * <p>A cursor records where the previous page stopped in {@link SortedFileWalker} order: the repo-relative
+ * path of the last returned entry and, for searches, the line number of the last returned match. Resuming
+ * from it skips everything before that position without reading it, so every page costs only its own work.
+ *
+ * <p>The token also carries a fingerprint of the original query, so a cursor cannot silently be applied to a
+ * different pattern or path. Tokens are not signed - they contain nothing the caller could not request
+ * directly, and all paths are re-validated after decoding.
+ */
+public record ResultCursor(String fingerprint, String position, int line) {
+
+    private static final String VERSION = "c1";
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Fingerprint of the parameters that define a query (tool name, pattern, path, flags).
+     */
+    public static String fingerprint(Object... queryParts) {
+        CRC32 crc = new CRC32();
+        for (Object part : queryParts) {
+            crc.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + fingerprint + SEPARATOR + line + SEPARATOR + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()} and checks it belongs to the query being executed.
+     *
+     * @param token               token from a previous page (null or blank means "first page")
+     * @param expectedFingerprint {@link #fingerprint(Object...)} of the current call
+     * @return decoded cursor, or null for the first page
+     * @throws ValidationException if the token is malformed or was issued for a different query
+     */
+    public static ResultCursor decode(String token, String expectedFingerprint) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            parts = raw.split(String.valueOf(SEPARATOR), 4);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("cursor", "Malformed cursor: " + e.getMessage());
+        }
+        if (parts.length != 4 || !VERSION.equals(parts[0]) || parts[3].isEmpty()) {
+            throw new ValidationException("cursor", "Malformed cursor");
+        }
+        if (!parts[1].equals(expectedFingerprint)) {
+            throw new ValidationException("cursor",
+                    "Cursor belongs to a different query - repeat the call with the original parameters or without a cursor");
+        }
+        int line;
+        try {
+            line = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("cursor", "Malformed cursor");
+        }
+        return new ResultCursor(parts[1], parts[3], line);
+    }
+}
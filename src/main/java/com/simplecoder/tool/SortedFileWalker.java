@@ -0,0 +1,194 @@
+package com.simplecoder.tool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Lazy depth-first walk in a deterministic order that can be resumed from any position.
+ *
+ * <p>Order: the entries of each directory are sorted by file name, and a directory is yielded before its
+ * contents. Two paths therefore compare element by element ({@link #ORDER}), so a walk position is fully
+ * described by the last path it produced.
+ *
+ * <p>Resuming: given a resume path, directories that sort entirely before it are skipped without being read,
+ * and only the directories on the resume path itself are listed again. A resumed walk costs only the work for
+ * what it yields next. Symbolic links to directories are yielded but not followed (same as Files.walk).
+ *
+ * <p>Directory contents come from a {@link Lister}: {@link #DISK} reads the file system, {@link RepoTreeSnapshot}
+ * serves them from memory.
+ */
+@Slf4j
+public final class SortedFileWalker implements Iterator<SortedFileWalker.Entry> {
+
+    /**
+     * Element-wise path order used by every walk (e.g. {@code a/b} sorts before {@code a-c}).
+     */
+    public static final Comparator<Path> ORDER = (a, b) -> {
+        int n = Math.min(a.getNameCount(), b.getNameCount());
+        for (int i = 0; i < n; i++) {
+            int cmp = a.getName(i).toString().compareTo(b.getName(i).toString());
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.getNameCount(), b.getNameCount());
+    };
+
+    /**
+     * Sort order of the entries inside one directory.
+     */
+    public static final Comparator<Entry> BY_NAME = Comparator.comparing(e -> e.path().getFileName().toString());
+
+    /**
+     * One directory entry.
+     *
+     * @param directory   whether it is a directory (symbolic links are not followed)
+     * @param regularFile whether it is, or links to, a regular file
+     */
+    public record Entry(Path path, boolean directory, boolean regularFile) {
+
+        static Entry of(Path path) throws IOException {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            boolean regularFile = attrs.isSymbolicLink() ? Files.isRegularFile(path) : attrs.isRegularFile();
+            return new Entry(path, attrs.isDirectory(), regularFile);
+        }
+    }
+
+    /**
+     * Source of directory contents for a walk.
+     */
+    @FunctionalInterface
+    public interface Lister {
+        /**
+         * @return entries of {@code dir} sorted {@link #BY_NAME}
+         * @throws IOException if the directory cannot be read
+         */
+        List<Entry> list(Path dir) throws IOException;
+    }
+
+    /**
+     * Reads directories straight from the file system.
+     */
+    public static final Lister DISK = dir -> {
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                try {
+                    entries.add(Entry.of(child));
+                } catch (IOException e) {
+                    log.debug("Failed to stat entry: {}", child, e); // deleted while listing
+                }
+            }
+        }
+        entries.sort(BY_NAME);
+        return entries;
+    };
+
+    private final Lister lister;
+    private final Path resumeFrom;
+    private final boolean resumeInclusive;
+    private final Predicate<Path> descendInto;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private Entry next;
+
+    private record Frame(List<Entry> children, boolean onResumePath, int[] position) {
+    }
+
+    /**
+     * @param lister          source of directory contents
+     * @param start           directory to walk (not itself yielded)
+     * @param resumeFrom      position to resume at, or null to walk everything
+     * @param resumeInclusive whether {@code resumeFrom} itself is yielded again
+     * @param descendInto     directories whose contents are walked (others are yielded but not entered)
+     */
+    public SortedFileWalker(Lister lister, Path start, Path resumeFrom, boolean resumeInclusive, Predicate<Path> descendInto) {
+        this.lister = lister;
+        this.resumeFrom = resumeFrom;
+        this.resumeInclusive = resumeInclusive;
+        this.descendInto = descendInto;
+        pushDirectory(start, resumeFrom != null && resumeFrom.startsWith(start));
+        advance();
+    }
+
+    public SortedFileWalker(Lister lister, Path start, Path resumeFrom, boolean resumeInclusive) {
+        this(lister, start, resumeFrom, resumeInclusive, dir -> true);
+    }
+
+    /**
+     * Walks the whole tree below {@code start} on disk.
+     */
+    public SortedFileWalker(Path start) {
+        this(DISK, start, null, false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Entry next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Entry current = next;
+        advance();
+        return current;
+    }
+
+    private void advance() {
+        next = null;
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.position()[0] >= frame.children().size()) {
+                stack.pop();
+                continue;
+            }
+            Entry child = frame.children().get(frame.position()[0]++);
+            Path path = child.path();
+
+            if (frame.onResumePath()) {
+                int cmp = ORDER.compare(path, resumeFrom);
+                boolean ancestorOfResume = child.directory() && cmp < 0 && resumeFrom.startsWith(path);
+                if (ancestorOfResume) {
+                    // Already yielded in an earlier page, but the resume point lies inside it
+                    if (descendInto.test(path)) {
+                        pushDirectory(path, true);
+                    }
+                    continue;
+                }
+                if (cmp < 0 || (cmp == 0 && !resumeInclusive)) {
+                    continue; // entirely before the resume point - not even listed
+                }
+            }
+
+            if (child.directory() && descendInto.test(path)) {
+                pushDirectory(path, false);
+            }
+            next = child;
+            return;
+        }
+    }
+
+    private void pushDirectory(Path dir, boolean onResumePath) {
+        try {
+            stack.push(new Frame(lister.list(dir), onResumePath, new int[]{0}));
+        } catch (IOException e) {
+            log.debug("Failed to list directory: {}", dir, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.simplecoder.tool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Single-occurrence replacement for files too large to hold in memory as a String.
+ *
+ * <p>{@link #find} runs Boyer-Moore-Horspool over the file's raw bytes through memory-mapped windows, so the
+ * file is never copied onto the heap. {@link #write} then produces prefix + replacement + suffix with
+ * {@link FileChannel#transferTo}, which lets the kernel copy the unchanged parts.
+ *
+ * <p>Searching the UTF-8 bytes of the old string finds exactly the occurrences a String search would in a
+ * valid UTF-8 file. Unlike the in-memory path, files with malformed UTF-8 are not rejected; only the matched
+ * bytes change.
+ */
+public final class StreamingReplace {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private StreamingReplace() {
+    }
+
+    /**
+     * Result of scanning a file for the old string.
+     *
+     * @param count    non-overlapping occurrences (counted left to right, like repeated {@code indexOf})
+     * @param position byte offset of the first occurrence, or -1 if there is none
+     * @param hash     {@link ContentHash} of the whole file, or null if it was not requested
+     */
+    public record Match(int count, long position, String hash) {
+    }
+
+    /**
+     * Scans the whole file for {@code needle}.
+     *
+     * @param hashContent whether to compute the file's content hash in the same pass
+     */
+    public static Match find(FileChannel channel, byte[] needle, boolean hashContent) throws IOException {
+        return find(channel, needle, hashContent, WINDOW_SIZE);
+    }
+
+    static Match find(FileChannel channel, byte[] needle, boolean hashContent, long windowSize) throws IOException {
+        if (needle.length == 0) {
+            throw new IllegalArgumentException("needle cannot be empty");
+        }
+        int n = needle.length;
+        int[] skip = new int[256];
+        Arrays.fill(skip, n);
+        for (int i = 0; i < n - 1; i++) {
+            skip[needle[i] & 0xFF] = n - 1 - i;
+        }
+        MessageDigest digest = hashContent ? ContentHash.newDigest() : null;
+
+        long size = channel.size();
+        int count = 0;
+        long first = -1;
+        long next = 0; // where the next candidate may start (after the previous match)
+        for (long base = 0; base < size; base += windowSize) {
+            // Each window overlaps the next by n - 1 bytes so matches spanning the boundary are found
+            long mapped = Math.min(size - base, windowSize + n - 1);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, base, mapped);
+            if (digest != null) {
+                digest.update(window.slice(0, (int) Math.min(windowSize, size - base)));
+            }
+            long limit = Math.min(windowSize, mapped - n + 1); // candidate starts owned by this window
+            long i = Math.max(next - base, 0);
+            while (i < limit) {
+                int at = (int) i;
+                int k = n - 1;
+                while (k >= 0 && window.get(at + k) == needle[k]) {
+                    k--;
+                }
+                if (k < 0) {
+                    if (count++ == 0) {
+                        first = base + i;
+                    }
+                    i += n;
+                } else {
+                    i += skip[window.get(at + n - 1) & 0xFF];
+                }
+            }
+            next = base + i;
+        }
+        String hash = digest != null ? ContentHash.hex(digest.digest()) : null;
+        return new Match(count, first, hash);
+    }
+
+    /**
+     * Writes {@code source} with the {@code oldLength} bytes at {@code position} replaced into {@code target}.
+     */
+    public static void write(FileChannel source, long position, int oldLength, byte[] replacement, FileChannel target)
+            throws IOException {
+        transferFully(source, 0, position, target);
+        ByteBuffer middle = ByteBuffer.wrap(replacement);
+        while (middle.hasRemaining()) {
+            target.write(middle);
+        }
+        long suffix = position + oldLength;
+        transferFully(source, suffix, source.size() - suffix, target);
+    }
+
+    private static void transferFully(FileChannel source, long position, long count, FileChannel target)
+            throws IOException {
+        while (count > 0) {
+            long transferred = source.transferTo(position, count, target);
+            if (transferred <= 0) {
+                throw new EOFException("File shrank while it was being rewritten");
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+}
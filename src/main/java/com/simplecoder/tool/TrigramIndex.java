@@ -0,0 +1,372 @@
+package com.simplecoder.tool;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Trigram (3-byte n-gram) index over the repository root, used to narrow searchText to candidate files.
+ *
+ * <p>Each indexed file contributes the set of byte trigrams it contains. ASCII letters are folded to lower
+ * case, so one index serves both case-sensitive and case-insensitive queries. A query intersects the posting
+ * lists of the trigrams of every required literal (taking the union across alternatives of a clause). The
+ * result is a filter over the caller's own walk that keeps a superset of the matching files, and every kept file
+ * is verified by a real scan, so the index can only save work, never change results.
+ *
+ * <p>Files excluded by {@link IgnoreRules} are not indexed; searches scoped inside an ignored directory walk it.
+ *
+ * <p>Freshness rules:
+ * - The index records each file's mtime and size when it reads it; a file the index would skip is kept anyway
+ *   if either differs now (one stat), so edits made outside the agent (editor, git checkout, build) are found
+ * - Files missing from the index (created since it was built) are always kept
+ * - Files edited through ToolsService are reported via {@link #invalidate(Path)} and always kept as candidates
+ * - The index is built on a background thread and rebuilt once it is older than max-age; while it is building
+ *   or stale, {@link #candidateFilter} returns empty and the caller scans every file
+ */
+@Slf4j
+@Component
+public class TrigramIndex {
+
+    private static final int TRIGRAM_SPACE = 1 << 24;
+
+    private final Path repoRoot;
+    private final IgnoreRules ignoreRules;
+    private final boolean enabled;
+    private final long maxFileBytes;
+    private final long maxAgeNanos;
+    private final ExecutorService builder;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final Set<Integer> dirtyIds = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot;
+    private volatile boolean forcedStale;
+
+    public TrigramIndex(
+            PathValidator pathValidator,
+            IgnoreRules ignoreRules,
+            @Value("${simple-coder.search.index.enabled:true}") boolean enabled,
+            @Value("${simple-coder.search.index.max-file-bytes:4194304}") long maxFileBytes,
+            @Value("${simple-coder.search.index.max-age-seconds:300}") long maxAgeSeconds) {
+        this.repoRoot = pathValidator.getRepoRoot();
+        this.ignoreRules = ignoreRules;
+        this.enabled = enabled;
+        this.maxFileBytes = maxFileBytes;
+        this.maxAgeNanos = maxAgeSeconds * 1_000_000_000L;
+        this.builder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "trigram-index-builder");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("TrigramIndex initialized with enabled={}, max-file-bytes={}, max-age-seconds={}",
+                enabled, maxFileBytes, maxAgeSeconds);
+    }
+
+    /**
+     * Creates an index that never answers queries (callers always fall back to a full walk).
+     */
+    public static TrigramIndex disabled(PathValidator pathValidator) {
+        return new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), false, 0, 0);
+    }
+
+    @PostConstruct
+    void warmUp() {
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * Returns a filter keeping the files that may satisfy all literal clauses. The caller applies it to its own
+     * walk of {@code scope}, which also yields files created since the index was built.
+     *
+     * @param scope         directory the search is restricted to
+     * @param clauses       conjunction of clauses; a clause is satisfied if any of its literals occurs
+     *                      (see {@link RegexLiterals#requiredClauses(String)})
+     * @param caseSensitive whether the search distinguishes case
+     * @return filter over files under scope, or empty if the index cannot answer (disabled, stale, scope inside
+     *         an ignored directory, or no usable trigrams)
+     */
+    public Optional<Predicate<Path>> candidateFilter(Path scope, Collection<List<String>> clauses, boolean caseSensitive) {
+        if (!enabled || ignoreRules.isExcluded(scope)) {
+            return Optional.empty();
+        }
+        Snapshot current = snapshot;
+        if (current == null || forcedStale || System.nanoTime() - current.builtAtNanos() > maxAgeNanos) {
+            scheduleRebuild();
+            return Optional.empty();
+        }
+
+        int[] ids = null;
+        for (List<String> clause : clauses) {
+            int[] clauseIds = clauseCandidates(current, clause, caseSensitive);
+            if (clauseIds != null) {
+                ids = ids == null ? clauseIds : intersect(ids, clauseIds);
+            }
+        }
+        if (ids == null) {
+            return Optional.empty(); // no clause produced a usable trigram
+        }
+
+        BitSet selected = new BitSet(current.files().size());
+        for (int id : ids) {
+            selected.set(id);
+        }
+        for (int id : current.unindexed()) {
+            selected.set(id);
+        }
+        for (int id : dirtyIds) {
+            selected.set(id);
+        }
+        log.debug("TrigramIndex selected {} of {} files for search under {}", selected.cardinality(), current.files().size(), scope);
+
+        return Optional.of(file -> {
+            Integer id = current.ids().get(file);
+            return id == null || selected.get(id) || current.changedSinceIndexed(id, file);
+        });
+    }
+
+    /**
+     * Reports that a file's content changed. Known files stay candidates for every query until the next
+     * rebuild; unknown files mark the whole index stale.
+     *
+     * @param file absolute path of the modified file
+     */
+    public void invalidate(Path file) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Integer id = current.ids().get(file);
+        if (id != null) {
+            dirtyIds.add(id);
+        } else {
+            forcedStale = true;
+        }
+    }
+
+    /**
+     * Rebuilds the index synchronously on the calling thread.
+     */
+    public void rebuild() throws IOException {
+        long start = System.nanoTime();
+        List<Path> files = new ArrayList<>();
+        SortedFileWalker.Lister lister = ignoreRules.filter(SortedFileWalker.DISK);
+        for (Iterator<SortedFileWalker.Entry> walk = new SortedFileWalker(lister, repoRoot, null, false); walk.hasNext(); ) {
+            SortedFileWalker.Entry entry = walk.next();
+            if (entry.regularFile()) {
+                files.add(entry.path());
+            }
+        }
+
+        Map<Integer, IntList> postings = new HashMap<>();
+        Map<Path, Integer> ids = new HashMap<>(files.size() * 2);
+        long[] modifiedMillis = new long[files.size()];
+        long[] sizes = new long[files.size()];
+        IntList unindexed = new IntList();
+        BitSet seen = new BitSet(TRIGRAM_SPACE);
+        IntList fileTrigrams = new IntList();
+
+        for (int id = 0; id < files.size(); id++) {
+            Path file = files.get(id);
+            ids.put(file, id);
+            byte[] content;
+            try {
+                // Stat before reading: a change during the read then shows as a newer mtime at query time
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                modifiedMillis[id] = attrs.lastModifiedTime().toMillis();
+                sizes[id] = attrs.size();
+                if (attrs.size() > maxFileBytes) {
+                    unindexed.add(id);
+                    continue;
+                }
+                content = Files.readAllBytes(file);
+            } catch (IOException e) {
+                log.debug("Failed to index file: {}", file, e);
+                unindexed.add(id);
+                continue;
+            }
+
+            fileTrigrams.clear();
+            for (int i = 0; i + 2 < content.length; i++) {
+                int trigram = trigram(content[i], content[i + 1], content[i + 2]);
+                if (!seen.get(trigram)) {
+                    seen.set(trigram);
+                    fileTrigrams.add(trigram);
+                }
+            }
+            for (int k = 0; k < fileTrigrams.size(); k++) {
+                int trigram = fileTrigrams.get(k);
+                seen.clear(trigram);
+                postings.computeIfAbsent(trigram, t -> new IntList()).add(id);
+            }
+        }
+
+        Map<Integer, int[]> frozen = new HashMap<>(postings.size() * 2);
+        postings.forEach((trigram, list) -> frozen.put(trigram, list.toArray()));
+
+        snapshot = new Snapshot(List.copyOf(files), Map.copyOf(ids), frozen, unindexed.toArray(), modifiedMillis, sizes,
+                System.nanoTime());
+        dirtyIds.clear();
+        forcedStale = false;
+        log.info("TrigramIndex built: {} files, {} trigrams, {} unindexed in {} ms",
+                files.size(), frozen.size(), unindexed.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void scheduleRebuild() {
+        if (!enabled || !building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            builder.execute(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.warn("TrigramIndex rebuild failed: {}", e.getMessage(), e);
+                } finally {
+                    building.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            building.set(false);
+            log.debug("TrigramIndex rebuild not scheduled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Union over the clause's alternatives of files containing every trigram of that alternative.
+     *
+     * @return sorted file ids, or null if some alternative is too short to constrain the result
+     */
+    private static int[] clauseCandidates(Snapshot current, List<String> clause, boolean caseSensitive) {
+        BitSet union = new BitSet(current.files().size());
+        for (String literal : clause) {
+            int[] trigrams = queryTrigrams(literal, caseSensitive);
+            if (trigrams.length == 0) {
+                return null;
+            }
+            int[] ids = null;
+            for (int trigram : trigrams) {
+                int[] posting = current.postings().getOrDefault(trigram, new int[0]);
+                ids = ids == null ? posting : intersect(ids, posting);
+            }
+            for (int id : ids) {
+                union.set(id);
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    private static int[] queryTrigrams(String literal, boolean caseSensitive) {
+        byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+        IntList trigrams = new IntList();
+        for (int i = 0; i + 2 < bytes.length; i++) {
+            // Case-insensitive matching may fold non-ASCII characters the index did not fold - skip them
+            if (!caseSensitive && (bytes[i] < 0 || bytes[i + 1] < 0 || bytes[i + 2] < 0)) {
+                continue;
+            }
+            trigrams.add(trigram(bytes[i], bytes[i + 1], bytes[i + 2]));
+        }
+        return trigrams.toArray();
+    }
+
+    private static int trigram(byte a, byte b, byte c) {
+        return (fold(a) << 16) | (fold(b) << 8) | fold(c);
+    }
+
+    private static int fold(byte b) {
+        int v = b & 0xFF;
+        return (v >= 'A' && v <= 'Z') ? v + ('a' - 'A') : v;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    private record Snapshot(List<Path> files, Map<Path, Integer> ids, Map<Integer, int[]> postings,
+                            int[] unindexed, long[] modifiedMillis, long[] sizes, long builtAtNanos) {
+
+        /**
+         * Whether the file's mtime or size differs from when it was indexed (or it cannot be checked).
+         */
+        boolean changedSinceIndexed(int id, Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return attrs.lastModifiedTime().toMillis() != modifiedMillis[id] || attrs.size() != sizes[id];
+            } catch (IOException e) {
+                return true; // let the scan report it
+            }
+        }
+    }
+
+    /**
+     * Minimal growable int array - avoids boxing millions of posting entries.
+     */
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.simplecoder.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser and applier for unified diffs ({@code diff -u} / {@code git diff} output).
+ *
+ * <p>Parsing is lenient about what models tend to get wrong. A hunk ends once the line counts in its {@code @@}
+ * header are met, so commentary after the diff is skipped; if the counts do not fit the body (models miscount),
+ * the body runs until the next hunk or file header instead. An empty body line counts as an empty context line,
+ * and {@code diff --git}/{@code index} lines are optional. Paths drop git's {@code a/} and {@code b/} prefixes;
+ * {@code /dev/null} marks a created or deleted file.
+ *
+ * <p>Hunks are applied in order. Each hunk's old lines (context and removals) are looked for at the header's line
+ * number first, then at growing offsets above and below it (like {@code patch}'s offset search), never before
+ * the end of the previous hunk. If no exact match exists, lines are compared ignoring trailing whitespace (the
+ * matched lines, context included, then take the hunk's text).
+ * Original line terminators are kept; added lines use the file's first terminator ("\n" if it has none).
+ */
+public final class UnifiedDiff {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+    private static final String DEV_NULL = "/dev/null";
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * Changes to one file. {@code oldPath} is null for a created file, {@code newPath} null for a deleted one.
+     */
+    public record FilePatch(String oldPath, String newPath, List<Hunk> hunks) {
+
+        /**
+         * The path the patch applies to (the new path, or the old one for deletions).
+         */
+        public String path() {
+            return newPath != null ? newPath : oldPath;
+        }
+    }
+
+    /**
+     * One {@code @@} section.
+     *
+     * @param oldStart      1-based line number in the original file from the header (a position hint)
+     * @param header        the {@code @@ ... @@} line, for messages
+     * @param oldLines      context and removed lines, in order
+     * @param newLines      context and added lines, in order
+     * @param oldNoNewline  whether the original's last line had no terminator ("\ No newline at end of file")
+     * @param newNoNewline  whether the result's last line has no terminator
+     */
+    public record Hunk(int oldStart, String header, List<String> oldLines, List<String> newLines,
+                       boolean oldNoNewline, boolean newNoNewline) {
+    }
+
+    /**
+     * Where a hunk was applied.
+     *
+     * @param offset             lines between the header's position and where the hunk matched
+     * @param ignoredWhitespace  whether the match needed trailing whitespace to be ignored
+     */
+    public record HunkResult(Hunk hunk, int offset, boolean ignoredWhitespace) {
+    }
+
+    /**
+     * New content of a file with where each hunk landed.
+     */
+    public record Applied(String content, List<HunkResult> hunks) {
+    }
+
+    /**
+     * Thrown for a malformed diff or a hunk that does not match the file.
+     */
+    public static class PatchException extends Exception {
+        public PatchException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @return the file patches in diff order
+     * @throws PatchException if the text contains no file patch or a header is malformed
+     */
+    public static List<FilePatch> parse(String diff) throws PatchException {
+        List<String> lines = diff.lines().toList();
+        List<FilePatch> patches = new ArrayList<>();
+        int i = 0;
+        while (i < lines.size()) {
+            if (!isFileHeader(lines, i)) {
+                i++; // "diff --git", "index", "new file mode" and any commentary around the diff
+                continue;
+            }
+            String oldPath = parsePath(lines.get(i).substring(4));
+            String newPath = parsePath(lines.get(i + 1).substring(4));
+            if (oldPath == null && newPath == null) {
+                throw new PatchException("line " + (i + 1) + ": both paths are /dev/null");
+            }
+            i += 2;
+
+            List<Hunk> hunks = new ArrayList<>();
+            while (i < lines.size() && lines.get(i).startsWith("@@")) {
+                Matcher header = HUNK_HEADER.matcher(lines.get(i));
+                if (!header.matches()) {
+                    throw new PatchException("line " + (i + 1) + ": malformed hunk header '" + lines.get(i) + "'");
+                }
+                int headerLine = i++;
+                int end = countedEnd(lines, i, count(header.group(2)), count(header.group(4)));
+                if (end < 0) {
+                    end = i;
+                    while (end < lines.size() && !isHunkBoundary(lines, end)) {
+                        end++;
+                    }
+                }
+                List<String> oldLines = new ArrayList<>();
+                List<String> newLines = new ArrayList<>();
+                boolean oldNoNewline = false;
+                boolean newNoNewline = false;
+                char last = ' ';
+                while (i < end) {
+                    String line = lines.get(i++);
+                    char kind = line.isEmpty() ? ' ' : line.charAt(0);
+                    String text = line.isEmpty() ? "" : line.substring(1);
+                    switch (kind) {
+                        case ' ' -> {
+                            oldLines.add(text);
+                            newLines.add(text);
+                        }
+                        case '-' -> oldLines.add(text);
+                        case '+' -> newLines.add(text);
+                        case '\\' -> {
+                            // "\ No newline at end of file" refers to the line before it
+                            oldNoNewline |= last != '+';
+                            newNoNewline |= last != '-';
+                        }
+                        default -> throw new PatchException("line " + i + ": unexpected line in hunk '" + line + "'");
+                    }
+                    last = kind;
+                }
+                hunks.add(new Hunk(Integer.parseInt(header.group(1)), lines.get(headerLine), oldLines, newLines,
+                        oldNoNewline, newNoNewline));
+            }
+            if (hunks.isEmpty()) {
+                throw new PatchException("no hunks for " + (newPath != null ? newPath : oldPath));
+            }
+            patches.add(new FilePatch(oldPath, newPath, hunks));
+        }
+        if (patches.isEmpty()) {
+            throw new PatchException("no '--- ' / '+++ ' file headers found");
+        }
+        return patches;
+    }
+
+    /**
+     * A hunk header's line count; omitted means 1.
+     */
+    private static int count(String group) {
+        return group != null ? Integer.parseInt(group) : 1;
+    }
+
+    private static boolean isHunkBoundary(List<String> lines, int i) {
+        return lines.get(i).startsWith("@@") || isFileHeader(lines, i) || lines.get(i).startsWith("diff ");
+    }
+
+    /**
+     * End (exclusive) of a hunk body starting at {@code from} that holds exactly the header's counts, or -1 if the
+     * counts do not fit: a boundary or a non-diff line comes first, or more +/- lines follow.
+     */
+    private static int countedEnd(List<String> lines, int from, int oldCount, int newCount) {
+        int oldSeen = 0;
+        int newSeen = 0;
+        int i = from;
+        while (oldSeen < oldCount || newSeen < newCount) {
+            if (i == lines.size() || isHunkBoundary(lines, i)) {
+                return -1;
+            }
+            String line = lines.get(i++);
+            switch (line.isEmpty() ? ' ' : line.charAt(0)) {
+                case ' ' -> {
+                    oldSeen++;
+                    newSeen++;
+                }
+                case '-' -> oldSeen++;
+                case '+' -> newSeen++;
+                case '\\' -> {
+                }
+                default -> {
+                    return -1;
+                }
+            }
+        }
+        if (oldSeen != oldCount || newSeen != newCount) {
+            return -1;
+        }
+        while (i < lines.size() && lines.get(i).startsWith("\\")) {
+            i++; // "\ No newline at end of file" for the last line
+        }
+        if (i < lines.size() && !isHunkBoundary(lines, i)
+                && (lines.get(i).startsWith("+") || lines.get(i).startsWith("-"))) {
+            return -1; // the hunk clearly goes on - the counts are wrong
+        }
+        return i;
+    }
+
+    /**
+     * Applies a file's hunks to its current content ("" for a file being created).
+     *
+     * @throws PatchException naming the first hunk that matches nowhere
+     */
+    public static Applied apply(String content, List<Hunk> hunks) throws PatchException {
+        List<String> text = new ArrayList<>();
+        List<String> terminators = new ArrayList<>();
+        split(content, text, terminators);
+        String eol = terminators.stream().filter(t -> !t.isEmpty()).findFirst().orElse("\n");
+
+        List<HunkResult> results = new ArrayList<>(hunks.size());
+        int minStart = 0;
+        int delta = 0; // lines added minus removed by earlier hunks
+        for (int h = 0; h < hunks.size(); h++) {
+            Hunk hunk = hunks.get(h);
+            // "@@ -0,0" (empty original) and "@@ -N,0" (pure insertion after line N) name the line before
+            int expected = Math.max(hunk.oldLines().isEmpty() ? hunk.oldStart() : hunk.oldStart() - 1, 0) + delta;
+            boolean ignoredWhitespace = false;
+            int at = find(text, hunk.oldLines(), expected, minStart, false);
+            if (at < 0) {
+                at = find(text, hunk.oldLines(), expected, minStart, true);
+                ignoredWhitespace = true;
+            }
+            if (at < 0) {
+                throw new PatchException("hunk " + (h + 1) + " (" + hunk.header() + ") does not match the file");
+            }
+
+            int end = at + hunk.oldLines().size();
+            boolean atEndOfFile = end == text.size();
+            List<String> addedTerminators = new ArrayList<>(hunk.newLines().size());
+            for (int k = 0; k < hunk.newLines().size(); k++) {
+                addedTerminators.add(eol);
+            }
+            if (atEndOfFile && !addedTerminators.isEmpty()) {
+                addedTerminators.set(addedTerminators.size() - 1, hunk.newNoNewline() ? "" : eol);
+            } else if (atEndOfFile && at > 0 && hunk.newNoNewline()) {
+                terminators.set(at - 1, ""); // the hunk removed the tail; the preceding line is now last
+            }
+            text.subList(at, end).clear();
+            terminators.subList(at, end).clear();
+            text.addAll(at, hunk.newLines());
+            terminators.addAll(at, addedTerminators);
+
+            results.add(new HunkResult(hunk, at - expected, ignoredWhitespace));
+            minStart = at + hunk.newLines().size();
+            delta += hunk.newLines().size() - hunk.oldLines().size();
+        }
+
+        StringBuilder out = new StringBuilder(content.length() + 256);
+        for (int k = 0; k < text.size(); k++) {
+            out.append(text.get(k)).append(terminators.get(k));
+        }
+        return new Applied(out.toString(), results);
+    }
+
+    /**
+     * Finds {@code needle} in {@code lines} at or after {@code minStart}, closest to {@code expected} first.
+     */
+    private static int find(List<String> lines, List<String> needle, int expected, int minStart, boolean ignoreTrailing) {
+        int last = lines.size() - needle.size();
+        if (last < minStart) {
+            return -1;
+        }
+        int start = Math.min(Math.max(expected, minStart), last);
+        for (int distance = 0; start - distance >= minStart || start + distance <= last; distance++) {
+            if (start + distance <= last && matchesAt(lines, needle, start + distance, ignoreTrailing)) {
+                return start + distance;
+            }
+            if (distance > 0 && start - distance >= minStart && matchesAt(lines, needle, start - distance, ignoreTrailing)) {
+                return start - distance;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesAt(List<String> lines, List<String> needle, int at, boolean ignoreTrailing) {
+        for (int k = 0; k < needle.size(); k++) {
+            String line = lines.get(at + k);
+            String want = needle.get(k);
+            if (ignoreTrailing ? !line.stripTrailing().equals(want.stripTrailing()) : !line.equals(want)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits into lines and their terminators ("\n", "\r\n", "\r" or "" for a last line without one).
+     */
+    private static void split(String content, List<String> text, List<String> terminators) {
+        int start = 0;
+        int i = 0;
+        while (i < content.length()) {
+            char c = content.charAt(i);
+            if (c == '\n' || c == '\r') {
+                int end = i;
+                i += c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n' ? 2 : 1;
+                text.add(content.substring(start, end));
+                terminators.add(content.substring(end, i));
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        if (start < content.length()) {
+            text.add(content.substring(start));
+            terminators.add("");
+        }
+    }
+
+    private static boolean isFileHeader(List<String> lines, int i) {
+        return i + 1 < lines.size() && lines.get(i).startsWith("--- ") && lines.get(i + 1).startsWith("+++ ");
+    }
+
+    /**
+     * Extracts the path from a "--- "/"+++ " header: drops a tab-separated timestamp and git's a/ or b/ prefix.
+     */
+    private static String parsePath(String header) {
+        String path = header;
+        int tab = path.indexOf('\t');
+        if (tab >= 0) {
+            path = path.substring(0, tab);
+        }
+        path = path.strip();
+        if (path.equals(DEV_NULL)) {
+            return null;
+        }
+        if (path.startsWith("a/") || path.startsWith("b/")) {
+            path = path.substring(2);
+        }
+        return path;
+    }
+}
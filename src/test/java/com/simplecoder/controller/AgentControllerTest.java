@@ -1,10 +1,16 @@
 package com.simplecoder.controller;
 
+import com.simplecoder.model.AgentEvent;
 import com.simplecoder.model.ToolRequest;
 import com.simplecoder.model.ToolResponse;
 import com.simplecoder.service.AgentService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -49,4 +55,40 @@ class AgentControllerTest {
         assertEquals("AgentService error", resp.getMessage());
         assertTrue(resp.getError().contains("Invalid tool selection"));
     }
+
+    @Test
+    @DisplayName("POST /api/agent/stream sends each agent event as an SSE named after its type")
+    void testStream() {
+        AgentService service = mock(AgentService.class);
+        ToolRequest req = ToolRequest.builder().prompt("Read pom.xml").build();
+        when(service.stream(req)).thenReturn(Flux.just(
+                AgentEvent.start(),
+                AgentEvent.toolStart("readFile", "{\"filePath\":\"pom.xml\"}"),
+                AgentEvent.toolEnd("readFile", 3, true, "Read pom.xml"),
+                AgentEvent.token("It is a Maven build."),
+                AgentEvent.done(1)));
+
+        AgentController controller = new AgentController(service);
+        List<ServerSentEvent<AgentEvent>> events = controller.stream(req).collectList().block();
+
+        assertNotNull(events);
+        assertEquals(List.of("start", "tool_start", "tool_end", "token", "done"),
+                events.stream().map(ServerSentEvent::event).toList());
+        assertEquals("readFile", events.get(1).data().getTool());
+        assertEquals("It is a Maven build.", events.get(3).data().getText());
+    }
+
+    @Test
+    @DisplayName("POST /api/agent/sessions returns the new session id")
+    void testCreateSession() {
+        AgentService service = mock(AgentService.class);
+        when(service.createSession()).thenReturn(ToolResponse.success("Session created", Map.of("sessionId", "s-1")));
+
+        AgentController controller = new AgentController(service);
+        ToolResponse resp = controller.createSession().getBody();
+
+        assertNotNull(resp);
+        assertTrue(resp.isSuccess());
+        assertEquals(Map.of("sessionId", "s-1"), resp.getData());
+    }
 }
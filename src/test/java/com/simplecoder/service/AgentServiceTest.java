@@ -0,0 +1,186 @@
+package com.simplecoder.service;
+
+import com.simplecoder.model.AgentEvent;
+import com.simplecoder.model.ToolRequest;
+import com.simplecoder.model.ToolResponse;
+import com.simplecoder.tool.PathValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgentServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Prompt> prompts = new ArrayList<>();
+    private final SessionStore sessionStore = new SessionStore(1 << 20, 20, Duration.ofMinutes(5));
+    private ToolsService toolsService;
+
+    /**
+     * Model that asks for readFile on every turn for which it is offered tools, up to toolTurns times, and
+     * answers "final answer" otherwise.
+     */
+    private ChatModel model(int toolTurns) {
+        return new ChatModel() {
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                prompts.add(prompt);
+                boolean toolsOffered = prompt.getOptions() instanceof ToolCallingChatOptions options
+                        && !options.getToolCallbacks().isEmpty();
+                long toolRounds = prompts.stream().filter(p -> p.getInstructions().size() > 1).count();
+                AssistantMessage message = toolsOffered && toolRounds < toolTurns
+                        ? new AssistantMessage("", Map.of(), List.of(new AssistantMessage.ToolCall(
+                                "call-" + prompts.size(), "function", "readFile", "{\"filePath\":\"a.txt\"}")))
+                        : new AssistantMessage("final answer");
+                return new ChatResponse(List.of(new Generation(message)));
+            }
+
+            @Override
+            public Flux<ChatResponse> stream(Prompt prompt) {
+                return Flux.just(call(prompt));
+            }
+        };
+    }
+
+    private AgentService service(int toolTurns, int maxSteps, Duration maxDuration) {
+        return new AgentService(ChatClient.builder(model(toolTurns)).build(), toolsService,
+                ToolCallingManager.builder().build(), new PathValidator(tempDir.toString()), sessionStore,
+                maxSteps, maxDuration, false);
+    }
+
+    private static ToolRequest request() {
+        return ToolRequest.builder().prompt("what is in a.txt?").build();
+    }
+
+    @BeforeEach
+    void setup() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "hello\n");
+        toolsService = new ToolsService(new PathValidator(tempDir.toString()), 100, 50, 50);
+    }
+
+    @Test
+    @DisplayName("tool results are fed back until the model answers, and the steps are reported")
+    void runsLoopUntilAnswer() {
+        ToolResponse response = service(2, 10, Duration.ofMinutes(1)).process(request());
+
+        assertTrue(response.isSuccess(), response.getError());
+        assertEquals("final answer", response.getData());
+        assertEquals(2, response.getSteps());
+        assertEquals(3, prompts.size());
+        Message toolResult = prompts.get(2).getInstructions().get(prompts.get(2).getInstructions().size() - 1);
+        assertTrue(((ToolResponseMessage) toolResult).getResponses().get(0).responseData().contains("hello"));
+    }
+
+    @Test
+    @DisplayName("once max-steps is used up the model is asked for a final answer without tools")
+    void forcesFinalAnswerAfterMaxSteps() {
+        ToolResponse response = service(Integer.MAX_VALUE, 3, Duration.ofMinutes(1)).process(request());
+
+        assertTrue(response.isSuccess(), response.getError());
+        assertEquals("final answer", response.getData());
+        assertEquals(3, response.getSteps());
+        assertEquals(5, prompts.size()); // first turn, 3 steps, final answer
+
+        Prompt last = prompts.get(4);
+        assertTrue(((ToolCallingChatOptions) last.getOptions()).getToolCallbacks().isEmpty());
+        List<Message> messages = last.getInstructions();
+        assertEquals(AgentService.FINAL_ANSWER_NOTE, messages.get(messages.size() - 1).getText());
+    }
+
+    @Test
+    @DisplayName("the run stops with an error once max-duration has passed")
+    void stopsAtDeadline() {
+        ToolResponse response = service(Integer.MAX_VALUE, 10, Duration.ZERO).process(request());
+
+        assertFalse(response.isSuccess());
+        assertEquals("Agent stopped", response.getMessage());
+        assertTrue(response.getError().startsWith("Time limit of 0s reached"), response.getError());
+        assertEquals(0, response.getSteps());
+        assertEquals(1, prompts.size());
+    }
+
+    @Test
+    @DisplayName("in session mode the server supplies the history and records each interaction")
+    @SuppressWarnings("unchecked")
+    void sessionModeKeepsHistory() {
+        AgentService service = service(0, 10, Duration.ofMinutes(1));
+        String sessionId = ((Map<String, String>) service.createSession().getData()).get("sessionId");
+
+        service.process(ToolRequest.builder().prompt("first question").sessionId(sessionId).build());
+        ToolResponse second = service.process(ToolRequest.builder().prompt("second question").sessionId(sessionId).build());
+
+        assertTrue(second.isSuccess(), second.getError());
+        String secondPrompt = prompts.get(1).getInstructions().get(0).getText();
+        assertTrue(secondPrompt.contains("User: first question | Result: final answer"), secondPrompt);
+        assertEquals(2, sessionStore.stats().entries());
+
+        ToolResponse unknown = service.process(ToolRequest.builder().prompt("hi").sessionId("nope").build());
+        assertFalse(unknown.isSuccess());
+        assertTrue(unknown.getError().startsWith("Unknown or expired session"));
+    }
+
+    @Test
+    @DisplayName("the stream reports tool events, tokens and the steps used")
+    void streamReportsSteps() {
+        List<AgentEvent> events = service(1, 10, Duration.ofMinutes(1)).stream(request())
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(List.of(AgentEvent.START, AgentEvent.TOOL_START, AgentEvent.TOOL_END, AgentEvent.TOKEN, AgentEvent.DONE),
+                events.stream().map(AgentEvent::getType).toList());
+        assertEquals("final answer", events.get(3).getText());
+        assertEquals(AgentEvent.done(1), events.get(4));
+    }
+
+    @Test
+    @DisplayName("a streamed turn still running at max-duration ends the stream with the time-limit error")
+    void streamStopsAtDeadline() {
+        ChatModel slowModel = new ChatModel() {
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Flux<ChatResponse> stream(Prompt prompt) {
+                prompts.add(prompt);
+                ChatResponse partial = new ChatResponse(List.of(new Generation(new AssistantMessage("thinking"))));
+                return Flux.concat(Flux.just(partial), Flux.never());
+            }
+        };
+        for (Duration maxDuration : List.of(Duration.ofMillis(300), Duration.ZERO)) {
+            AgentService service = new AgentService(ChatClient.builder(slowModel).build(), toolsService,
+                    ToolCallingManager.builder().build(), new PathValidator(tempDir.toString()), sessionStore,
+                    10, maxDuration, false);
+
+            List<AgentEvent> events = service.stream(request()).collectList().block(Duration.ofSeconds(10));
+
+            AgentEvent last = events.get(events.size() - 1);
+            assertEquals(AgentEvent.ERROR, last.getType());
+            assertTrue(last.getText().startsWith("Time limit of 0s reached"), last.getText());
+        }
+        assertEquals(1, prompts.size(), "no model call once the deadline has passed");
+    }
+}
@@ -0,0 +1,64 @@
+package com.simplecoder.service;
+
+import com.simplecoder.model.AgentEvent;
+import com.simplecoder.tool.PathValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservedToolCallbackTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<AgentEvent> events = new ArrayList<>();
+    private ToolCallback readFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "x".repeat(500) + "\n");
+        ToolsService toolsService = new ToolsService(new PathValidator(tempDir.toString()), 100, 50, 50);
+        ToolCallback delegate = Arrays.stream(ToolCallbacks.from(toolsService))
+                .filter(callback -> callback.getToolDefinition().name().equals("readFile"))
+                .findFirst().orElseThrow();
+        readFile = new ObservedToolCallback(delegate, events::add);
+    }
+
+    @Test
+    @DisplayName("a successful call reports tool_start with the arguments and tool_end with a result preview")
+    void reportsSuccessfulCall() {
+        String result = readFile.call("{\"filePath\":\"a.txt\"}");
+
+        assertEquals(2, events.size());
+        assertEquals(AgentEvent.toolStart("readFile", "{\"filePath\":\"a.txt\"}"), events.get(0));
+        AgentEvent end = events.get(1);
+        assertEquals(AgentEvent.TOOL_END, end.getType());
+        assertTrue(end.getSuccess());
+        assertTrue(end.getDurationMs() >= 0);
+        assertTrue(result.startsWith(end.getText().substring(0, ObservedToolCallback.PREVIEW_CHARS)));
+        assertEquals(ObservedToolCallback.PREVIEW_CHARS + 3, end.getText().length());
+    }
+
+    @Test
+    @DisplayName("a failing call reports tool_end with success=false and rethrows")
+    void reportsFailedCall() {
+        assertThrows(ToolExecutionException.class, () -> readFile.call("{\"filePath\":\"missing.txt\"}"));
+
+        assertEquals(List.of(AgentEvent.TOOL_START, AgentEvent.TOOL_END), events.stream().map(AgentEvent::getType).toList());
+        assertFalse(events.get(1).getSuccess());
+        assertTrue(events.get(1).getText().contains("File not found"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.simplecoder.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelToolCallingManagerTest {
+
+    private static final long TOOL_MILLIS = 300;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Tool that sleeps and records when it starts and ends, returning "name(arguments)".
+     */
+    private ToolCallback tool(String name) {
+        ToolDefinition definition = ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return definition;
+            }
+
+            @Override
+            public String call(String toolInput) {
+                return call(toolInput, null);
+            }
+
+            @Override
+            public String call(String toolInput, ToolContext toolContext) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                log.add("start " + name + toolInput);
+                try {
+                    Thread.sleep(TOOL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                log.add("end " + name + toolInput);
+                running.decrementAndGet();
+                return name + "(" + toolInput + ")";
+            }
+        };
+    }
+
+    private ToolExecutionResult execute(String... calls) {
+        List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>();
+        for (int i = 0; i < calls.length; i++) {
+            String[] nameAndArguments = calls[i].split(":", 2);
+            toolCalls.add(new AssistantMessage.ToolCall("call-" + i, "function", nameAndArguments[0], nameAndArguments[1]));
+        }
+        ToolCallingChatOptions options = ToolCallingChatOptions.builder()
+                .toolCallbacks(tool("readFile"), tool("searchText"), tool("replaceText"))
+                .internalToolExecutionEnabled(false)
+                .build();
+        Prompt prompt = new Prompt(List.of(new UserMessage("go")), options);
+        ChatResponse response = new ChatResponse(List.of(new Generation(new AssistantMessage("", Map.of(), toolCalls))));
+
+        ToolCallingManager manager = new ParallelToolCallingManager(ToolCallingManager.builder().build(),
+                ToolsService.READ_ONLY_TOOLS);
+        return manager.executeToolCalls(prompt, response);
+    }
+
+    private static List<String> responses(ToolExecutionResult result) {
+        Message last = result.conversationHistory().get(result.conversationHistory().size() - 1);
+        return ((ToolResponseMessage) last).getResponses().stream()
+                .map(response -> response.id() + "=" + response.responseData())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("independent reads run concurrently and results keep the call order")
+    void readsRunConcurrently() {
+        long start = System.nanoTime();
+        ToolExecutionResult result = execute("readFile:a", "readFile:b", "searchText:c", "readFile:a");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(4, maxRunning.get());
+        assertTrue(elapsedMs < 2 * TOOL_MILLIS, "took " + elapsedMs + " ms");
+        assertEquals(List.of("call-0=readFile(a)", "call-1=readFile(b)", "call-2=searchText(c)", "call-3=readFile(a)"),
+                responses(result));
+        assertEquals(3, result.conversationHistory().size()); // user, assistant, tool responses
+    }
+
+    @Test
+    @DisplayName("a mutating call waits for earlier reads, and reads after it are not started early")
+    void writesStayOrdered() {
+        ToolExecutionResult result = execute("readFile:a", "readFile:b", "replaceText:x", "readFile:c");
+
+        assertEquals(List.of("call-0=readFile(a)", "call-1=readFile(b)", "call-2=replaceText(x)", "call-3=readFile(c)"),
+                responses(result));
+        int writeStart = log.indexOf("start replaceTextx");
+        assertTrue(log.indexOf("end readFilea") < writeStart);
+        assertTrue(log.indexOf("end readFileb") < writeStart);
+        assertTrue(log.indexOf("end replaceTextx") < log.indexOf("start readFilec"));
+        assertEquals(2, maxRunning.get());
+    }
+}
@@ -0,0 +1,85 @@
+package com.simplecoder.service;
+
+import com.simplecoder.model.ContextEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private static ContextEntry entry(String prompt, String result) {
+        return ContextEntry.builder().timestamp(TIME).prompt(prompt).result(result).build();
+    }
+
+    @Test
+    @DisplayName("a session's history is formatted like client-sent history and keeps the newest max-entries")
+    void keepsRecentHistory() {
+        SessionStore store = new SessionStore(1 << 20, 2, Duration.ofMinutes(5));
+        String id = store.create();
+        assertEquals("No previous context.", store.contextSummary(id));
+
+        store.append(id, entry("one", "1"));
+        store.append(id, entry("two", "2"));
+        store.append(id, entry("three", "3"));
+
+        assertEquals("--- Recent Context ---\n"
+                + "[2025-01-01T12:00] User: two | Result: 2\n"
+                + "[2025-01-01T12:00] User: three | Result: 3\n"
+                + "--- End Context ---", store.contextSummary(id));
+        assertEquals(2, store.stats().entries());
+    }
+
+    @Test
+    @DisplayName("unknown sessions are rejected and appends to them are ignored")
+    void rejectsUnknownSession() {
+        SessionStore store = new SessionStore(1 << 20, 20, Duration.ofMinutes(5));
+        store.append("nope", entry("one", "1"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> store.contextSummary("nope"));
+        assertTrue(e.getMessage().startsWith("Unknown or expired session"));
+        assertEquals(0, store.stats().sessions());
+    }
+
+    @Test
+    @DisplayName("least recently used sessions are evicted to stay within max-bytes")
+    void evictsByBytes() {
+        String result = "x".repeat(1000);
+        long perSession = SessionStore.SESSION_OVERHEAD_BYTES + SessionStore.ENTRY_OVERHEAD_BYTES
+                + 2L * entry("p", result).getSummary().length();
+        SessionStore store = new SessionStore(2 * perSession, 20, Duration.ofMinutes(5));
+        String a = store.create();
+        String b = store.create();
+        store.append(a, entry("p", result));
+        store.append(b, entry("p", result));
+        store.contextSummary(a); // b is now least recently used
+
+        String c = store.create();
+        store.append(c, entry("p", result));
+
+        assertEquals(2, store.stats().sessions());
+        assertTrue(store.stats().bytes() <= 2 * perSession);
+        assertThrows(IllegalArgumentException.class, () -> store.contextSummary(b));
+        assertNotEquals("No previous context.", store.contextSummary(a));
+        assertNotEquals("No previous context.", store.contextSummary(c));
+    }
+
+    @Test
+    @DisplayName("sessions idle for longer than idle-timeout are evicted")
+    void evictsIdleSessions() throws InterruptedException {
+        SessionStore store = new SessionStore(1 << 20, 20, Duration.ofMillis(100));
+        String idle = store.create();
+        Thread.sleep(200);
+        String fresh = store.create();
+
+        assertThrows(IllegalArgumentException.class, () -> store.contextSummary(idle));
+        assertEquals("No previous context.", store.contextSummary(fresh));
+        assertEquals(1, store.stats().evictions());
+        assertEquals(SessionStore.SESSION_OVERHEAD_BYTES, store.stats().bytes());
+    }
+}
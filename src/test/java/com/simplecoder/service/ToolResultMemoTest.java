@@ -0,0 +1,85 @@
+package com.simplecoder.service;
+
+import com.simplecoder.tool.PathValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolResultMemoTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger step = new AtomicInteger(1);
+    private Map<String, ToolCallback> tools;
+
+    @BeforeEach
+    void setup() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "alpha line\n".repeat(20));
+        Files.writeString(tempDir.resolve("b.txt"), "beta line\n".repeat(20));
+        PathValidator pathValidator = new PathValidator(tempDir.toString());
+        ToolsService toolsService = new ToolsService(pathValidator, 100, 50, 50);
+        ToolResultMemo memo = new ToolResultMemo(pathValidator, ToolsService.READ_ONLY_TOOLS, step::get);
+        tools = Arrays.stream(memo.wrap(ToolCallbacks.from(toolsService)))
+                .collect(Collectors.toMap(tool -> tool.getToolDefinition().name(), Function.identity()));
+    }
+
+    private String call(String tool, String arguments) {
+        return tools.get(tool).call(arguments);
+    }
+
+    @Test
+    @DisplayName("a repeated call with equivalent arguments gets a reference to the first result")
+    void repeatReturnsReference() throws IOException {
+        String first = call("readFile", "{\"filePath\":\"a.txt\"}");
+        assertTrue(first.contains("alpha line"));
+
+        step.set(3);
+        Files.writeString(tempDir.resolve("a.txt"), "changed outside the agent\n");
+        assertEquals(ToolResultMemo.reference("readFile", 1),
+                call("readFile", "{\"startLine\":null,\"filePath\":\"./a.txt\"}"));
+        assertNotEquals(first, call("readFile", "{\"filePath\":\"a.txt\",\"startLine\":1}"), "different arguments run");
+    }
+
+    @Test
+    @DisplayName("replaceText invalidates reads of the edited file and searches, but not other files")
+    void replaceTextInvalidatesEditedFile() {
+        call("readFile", "{\"filePath\":\"a.txt\"}");
+        call("readFile", "{\"filePath\":\"b.txt\"}");
+        call("searchText", "{\"pattern\":\"line\",\"searchPath\":\".\"}");
+
+        step.set(2);
+        call("replaceText", "{\"filePath\":\"a.txt\",\"oldString\":\"alpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\nalpha line\\n\",\"newString\":\"gamma\\n\"}");
+
+        assertTrue(call("readFile", "{\"filePath\":\"a.txt\"}").contains("gamma"));
+        assertEquals(ToolResultMemo.reference("readFile", 1), call("readFile", "{\"filePath\":\"b.txt\"}"));
+        assertFalse(call("searchText", "{\"pattern\":\"line\",\"searchPath\":\".\"}").startsWith("Unchanged"));
+    }
+
+    @Test
+    @DisplayName("other mutating tools invalidate everything, and failed calls are not remembered")
+    void patchClearsAllAndFailuresAreNotRemembered() throws IOException {
+        call("readFile", "{\"filePath\":\"b.txt\"}");
+        call("applyPatch", "{\"patch\":\"--- /dev/null\\n+++ b/c.txt\\n@@ -0,0 +1 @@\\n+new\\n\"}");
+        assertTrue(call("readFile", "{\"filePath\":\"b.txt\"}").contains("beta line"));
+
+        assertThrows(ToolExecutionException.class, () -> call("readFile", "{\"filePath\":\"missing.txt\"}"));
+        Files.writeString(tempDir.resolve("missing.txt"), "now here\n");
+        assertTrue(call("readFile", "{\"filePath\":\"missing.txt\"}").contains("now here"));
+    }
+}
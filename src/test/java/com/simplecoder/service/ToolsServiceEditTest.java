@@ -0,0 +1,256 @@
+package com.simplecoder.service;
+
+import com.simplecoder.exception.SecurityViolationException;
+import com.simplecoder.exception.ValidationException;
+import com.simplecoder.tool.AtomicFileWriter;
+import com.simplecoder.tool.ContentHash;
+import com.simplecoder.tool.FileContentCache;
+import com.simplecoder.tool.FileLocks;
+import com.simplecoder.tool.IgnoreRules;
+import com.simplecoder.tool.LineOffsetIndex;
+import com.simplecoder.tool.ParallelFileScanner;
+import com.simplecoder.tool.PathValidator;
+import com.simplecoder.tool.RepoTreeSnapshot;
+import com.simplecoder.tool.TrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the multi-file editing tools.
+ */
+class ToolsServiceEditTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ToolsService toolsService;
+
+    @BeforeEach
+    void setup() throws IOException {
+        toolsService = new ToolsService(new PathValidator(tempDir.toString()), 100, 50, 50);
+        Files.writeString(tempDir.resolve("A.java"), "class A {\n    int x = 1;\n    int y = 2;\n    int z = 3;\n}\n");
+        Files.writeString(tempDir.resolve("B.java"), "class B {\n    String name = \"b\";\n}\n");
+    }
+
+    private static ToolsService.TextEdit edit(String file, String oldString, String newString) {
+        return new ToolsService.TextEdit(file, oldString, newString);
+    }
+
+    @Test
+    @DisplayName("applyEdits applies every edit, in any order, and writes each file once")
+    void appliesAllEdits() throws IOException {
+        String result = toolsService.applyEdits(List.of(
+                edit("A.java", "int z = 3;", "long z = 3L;"),
+                edit("B.java", "\"b\"", "\"bee\""),
+                edit("A.java", "int x = 1;\n    int y", "int x = 10;\n    int yy"),
+                edit("A.java", "class A {", "final class A {")));
+
+        assertEquals("final class A {\n    int x = 10;\n    int yy = 2;\n    long z = 3L;\n}\n",
+                Files.readString(tempDir.resolve("A.java")));
+        assertEquals("class B {\n    String name = \"bee\";\n}\n", Files.readString(tempDir.resolve("B.java")));
+        assertTrue(result.startsWith("Applied 4 edits to 2 files:"));
+        assertTrue(result.contains("- A.java (3 edits)"));
+        assertTrue(result.contains("- B.java (1 edits)"));
+    }
+
+    @Test
+    @DisplayName("applyEdits leaves every file unchanged when any edit is invalid")
+    void allOrNothing() throws IOException {
+        String beforeA = Files.readString(tempDir.resolve("A.java"));
+        String beforeB = Files.readString(tempDir.resolve("B.java"));
+
+        ValidationException missing = assertThrows(ValidationException.class, () -> toolsService.applyEdits(List.of(
+                edit("A.java", "int x = 1;", "int x = 2;"),
+                edit("B.java", "no such text", "x"))));
+        assertTrue(missing.getMessage().contains("Edit 2 (B.java)"));
+        assertTrue(missing.getMessage().contains("not found"));
+
+        ValidationException ambiguous = assertThrows(ValidationException.class, () -> toolsService.applyEdits(List.of(
+                edit("A.java", "int", "long"))));
+        assertTrue(ambiguous.getMessage().contains("appears 3 times"));
+
+        ValidationException overlap = assertThrows(ValidationException.class, () -> toolsService.applyEdits(List.of(
+                edit("A.java", "int x = 1;", "int x = 2;"),
+                edit("B.java", "class B", "record B"),
+                edit("A.java", "x = 1;\n    int y", "x = 5;\n    int w"))));
+        assertTrue(overlap.getMessage().contains("Edits 1 and 3 overlap in A.java"));
+
+        assertThrows(ValidationException.class, () -> toolsService.applyEdits(List.of(
+                edit("A.java", "int x = 1;", "int x = 2;"),
+                edit("Missing.java", "a", "b"))));
+        assertThrows(SecurityViolationException.class, () -> toolsService.applyEdits(List.of(
+                edit("A.java", "int x = 1;", "int x = 2;"),
+                edit("../Outside.java", "a", "b"))));
+        assertThrows(ValidationException.class, () -> toolsService.applyEdits(List.of()));
+
+        assertEquals(beforeA, Files.readString(tempDir.resolve("A.java")));
+        assertEquals(beforeB, Files.readString(tempDir.resolve("B.java")));
+    }
+
+    @Test
+    @DisplayName("applyPatch applies a multi-file diff and can create files")
+    void appliesPatch() throws IOException {
+        String result = toolsService.applyPatch("""
+                diff --git a/A.java b/A.java
+                --- a/A.java
+                +++ b/A.java
+                @@ -2,3 +2,3 @@ class A {
+                     int x = 1;
+                -    int y = 2;
+                +    int y = 20;
+                     int z = 3;
+                --- a/B.java
+                +++ b/B.java
+                @@ -5,2 +5,3 @@
+                     String name = "b";
+                +    String other = "c";
+                 }
+                --- /dev/null
+                +++ b/pkg/C.java
+                @@ -0,0 +1,2 @@
+                +package pkg;
+                +class C {}
+                """);
+
+        assertEquals("class A {\n    int x = 1;\n    int y = 20;\n    int z = 3;\n}\n",
+                Files.readString(tempDir.resolve("A.java")));
+        assertEquals("class B {\n    String name = \"b\";\n    String other = \"c\";\n}\n",
+                Files.readString(tempDir.resolve("B.java")));
+        assertEquals("package pkg;\nclass C {}\n", Files.readString(tempDir.resolve("pkg/C.java")));
+        assertTrue(result.startsWith("Applied patch (3 hunks) to 3 files:"));
+        assertTrue(result.contains("- pkg/C.java (created)"));
+        assertTrue(result.contains("Note: B.java hunk 1 applied at offset -3 lines"));
+    }
+
+    @Test
+    @DisplayName("applyPatch leaves every file unchanged when any hunk does not match")
+    void patchIsAllOrNothing() throws IOException {
+        String beforeA = Files.readString(tempDir.resolve("A.java"));
+
+        ValidationException mismatch = assertThrows(ValidationException.class, () -> toolsService.applyPatch("""
+                --- a/A.java
+                +++ b/A.java
+                @@ -1,2 +1,2 @@
+                 class A {
+                -    int x = 1;
+                +    int x = 2;
+                --- /dev/null
+                +++ b/New.java
+                @@ -0,0 +1 @@
+                +class New {}
+                --- a/B.java
+                +++ b/B.java
+                @@ -1,2 +1,2 @@
+                 class B {
+                -    String name = "not there";
+                +    String name = "x";
+                """));
+        assertTrue(mismatch.getMessage().contains("B.java: hunk 1"));
+        assertEquals(beforeA, Files.readString(tempDir.resolve("A.java")));
+        assertFalse(Files.exists(tempDir.resolve("New.java")));
+
+        assertThrows(ValidationException.class, () -> toolsService.applyPatch("not a diff"));
+        assertThrows(ValidationException.class, () -> toolsService.applyPatch(
+                "--- a/A.java\n+++ /dev/null\n@@ -1,5 +0,0 @@\n-class A {\n"));
+        assertThrows(ValidationException.class, () -> toolsService.applyPatch(
+                "--- /dev/null\n+++ b/A.java\n@@ -0,0 +1 @@\n+class A {}\n"));
+        assertThrows(SecurityViolationException.class, () -> toolsService.applyPatch(
+                "--- /dev/null\n+++ b/../Outside.java\n@@ -0,0 +1 @@\n+x\n"));
+        assertEquals(beforeA, Files.readString(tempDir.resolve("A.java")));
+    }
+
+    @Test
+    @DisplayName("applyPatch cannot create files through a symlinked directory pointing outside the repository")
+    void patchCannotCreateThroughSymlinkEscape(@TempDir Path outside) throws IOException {
+        Files.createSymbolicLink(tempDir.resolve("linkdir"), outside);
+
+        assertThrows(SecurityViolationException.class, () -> toolsService.applyPatch(
+                "--- /dev/null\n+++ b/linkdir/new/File.java\n@@ -0,0 +1 @@\n+class File {}\n"));
+        assertFalse(Files.exists(outside.resolve("new")));
+    }
+
+    @Test
+    @DisplayName("an expectedHash from an earlier read rejects the edit once the file has changed")
+    void expectedHashRejectsStaleEdits() throws IOException {
+        Path file = tempDir.resolve("A.java");
+        String readHash = ContentHash.of(Files.readAllBytes(file));
+
+        String result = toolsService.replaceText("A.java", "int x = 1;", "int x = 2;", readHash);
+        String newHash = ContentHash.of(Files.readAllBytes(file));
+        assertTrue(result.endsWith("[hash: " + newHash + "]"));
+
+        ValidationException stale = assertThrows(ValidationException.class, () ->
+                toolsService.replaceText("A.java", "int y = 2;", "int y = 3;", readHash));
+        assertTrue(stale.getMessage().contains("has changed since it was read"));
+        assertThrows(ValidationException.class, () -> toolsService.applyEdits(List.of(
+                new ToolsService.TextEdit("A.java", "int y = 2;", "int y = 3;", readHash))));
+        assertTrue(Files.readString(file).contains("int y = 2;"));
+
+        toolsService.applyEdits(List.of(new ToolsService.TextEdit("A.java", "int y = 2;", "int y = 3;", newHash)));
+        assertTrue(Files.readString(file).contains("int y = 3;"));
+    }
+
+    @Test
+    @DisplayName("replaceText on files above the streaming threshold gives the same result as the in-memory path")
+    void streamingReplaceMatchesInMemory() throws IOException {
+        PathValidator pathValidator = new PathValidator(tempDir.toString());
+        ToolsService streaming = new ToolsService(pathValidator, TrigramIndex.disabled(pathValidator),
+                RepoTreeSnapshot.disabled(pathValidator), IgnoreRules.none(pathValidator), new LineOffsetIndex(1024, 256),
+                FileContentCache.disabled(), new AtomicFileWriter(AtomicFileWriter.Durability.FILE), new FileLocks(64),
+                ParallelFileScanner.sequential(), 100, 1000, 50, 50, 5000, 30_000, 0);
+        Files.copy(tempDir.resolve("A.java"), tempDir.resolve("A2.java"));
+
+        toolsService.replaceText("A.java", "int y = 2;", "double y = 2.5; // é");
+        String streamed = streaming.replaceText("A2.java", "int y = 2;", "double y = 2.5; // é");
+        assertEquals(Files.readString(tempDir.resolve("A.java")), Files.readString(tempDir.resolve("A2.java")));
+        assertEquals("Replaced 'int y = 2;' with 'double y = 2.5; // é' in A2.java", streamed);
+
+        ValidationException ambiguous = assertThrows(ValidationException.class, () -> streaming.replaceText("A2.java", "int", "long"));
+        assertTrue(ambiguous.getMessage().contains("appears 2 times"));
+        assertThrows(ValidationException.class, () -> streaming.replaceText("A2.java", "missing", "x"));
+        String hash = ContentHash.of(Files.readAllBytes(tempDir.resolve("A2.java")));
+        assertThrows(ValidationException.class, () -> streaming.replaceText("A2.java", "int x", "long x", "0000000000000000"));
+        streaming.replaceText("A2.java", "int x", "long x", hash);
+        assertTrue(Files.readString(tempDir.resolve("A2.java")).contains("long x = 1;"));
+    }
+
+    @Test
+    @DisplayName("concurrent replaceText calls on the same file never lose an edit")
+    void concurrentEditsAreSerialized() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            content.append("slot-").append(i).append(";\n");
+        }
+        Path file = Files.writeString(tempDir.resolve("Shared.txt"), content);
+
+        List<Callable<String>> edits = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int slot = i;
+            edits.add(() -> toolsService.replaceText("Shared.txt", "slot-" + slot + ";", "done-" + slot + ";"));
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<String> future : executor.invokeAll(edits)) {
+                future.get();
+            }
+        }
+
+        String result = Files.readString(file);
+        for (int i = 0; i < 40; i++) {
+            assertTrue(result.contains("done-" + i + ";"), "edit " + i + " was lost");
+        }
+    }
+}
@@ -122,6 +122,26 @@ class ToolsServiceExceptionTest {
         assertTrue(ex.getMessage().contains("End line must be >= start line"));
     }
 
+    @Test
+    @DisplayName("IF-1b: readFile throws ValidationException for fromEnd combined with a line range or < 1")
+    void readFileInvalidFromEndThrowsValidation() {
+        Path testFile = tempDir.resolve("test.txt");
+        try {
+            Files.writeString(testFile, "line1\nline2\nline3");
+        } catch (IOException e) {
+            fail("Setup failed");
+        }
+
+        ValidationException combined = assertThrows(ValidationException.class, () ->
+                toolsService.readFile("test.txt", 1, null, 2)
+        );
+        assertTrue(combined.getMessage().contains("cannot be combined"));
+        ValidationException zero = assertThrows(ValidationException.class, () ->
+                toolsService.readFile("test.txt", null, null, 0)
+        );
+        assertTrue(zero.getMessage().contains("fromEnd must be >= 1"));
+    }
+
     @Test
     @DisplayName("IF-1b: replaceText throws ValidationException for empty old string")
     void replaceTextEmptyOldStringThrowsValidation() {
@@ -0,0 +1,119 @@
+package com.simplecoder.service;
+
+import com.simplecoder.exception.SecurityViolationException;
+import com.simplecoder.exception.ValidationException;
+import com.simplecoder.tool.AtomicFileWriter;
+import com.simplecoder.tool.ContentHash;
+import com.simplecoder.tool.FileContentCache;
+import com.simplecoder.tool.FileLocks;
+import com.simplecoder.tool.IgnoreRules;
+import com.simplecoder.tool.LineOffsetIndex;
+import com.simplecoder.tool.ParallelFileScanner;
+import com.simplecoder.tool.PathValidator;
+import com.simplecoder.tool.RepoTreeSnapshot;
+import com.simplecoder.tool.TrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batch readFiles tool.
+ */
+class ToolsServiceReadTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PathValidator pathValidator;
+
+    @BeforeEach
+    void setup() throws IOException {
+        pathValidator = new PathValidator(tempDir.toString());
+        for (String name : List.of("a.txt", "b.txt", "c.txt")) {
+            StringBuilder content = new StringBuilder();
+            for (int i = 1; i <= 30; i++) {
+                content.append(name).append(" line ").append(i).append('\n');
+            }
+            Files.writeString(tempDir.resolve(name), content);
+        }
+    }
+
+    private ToolsService service(int batchMaxLines) {
+        PathValidator pv = pathValidator;
+        return new ToolsService(pv, TrigramIndex.disabled(pv), RepoTreeSnapshot.disabled(pv), IgnoreRules.none(pv),
+                new LineOffsetIndex(1024, 256), new FileContentCache(1 << 20, 1 << 16),
+                new AtomicFileWriter(AtomicFileWriter.Durability.FILE), new FileLocks(64), new ParallelFileScanner(4),
+                10, batchMaxLines, 50, 50, 5000, 30_000, 8L << 20);
+    }
+
+    private String hash(String name) throws IOException {
+        return ContentHash.of(Files.readAllBytes(tempDir.resolve(name)));
+    }
+
+    @Test
+    @DisplayName("readFiles returns every file in request order with the same lines readFile shows")
+    void batchMatchesIndividualReads() throws IOException {
+        ToolsService service = service(1000);
+
+        String result = service.readFiles(List.of(
+                new ToolsService.FileRange("c.txt", 5, 8),
+                new ToolsService.FileRange("a.txt", null, null),
+                new ToolsService.FileRange("b.txt", 29, null)));
+
+        assertTrue(result.startsWith("Read 3 of 3 files (36 lines, budget 1000)"));
+        assertTrue(result.indexOf("--- c.txt (lines 5-8 of 30 total)") < result.indexOf("--- a.txt (lines 1-30 of 30 total)"));
+        assertTrue(result.contains("--- b.txt (lines 29-30 of 30 total) [hash: " + hash("b.txt") + "]\n29 | b.txt line 29\n30 | b.txt line 30"));
+        String single = service.readFile("c.txt", 5, 8);
+        assertTrue(result.contains(single.substring(single.indexOf("\n\n") + 2)));
+        assertTrue(single.startsWith("Read c.txt (lines 5-8 of 30 total) [hash: " + hash("c.txt") + "]"));
+        assertTrue(result.contains("--- c.txt (lines 5-8 of 30 total) [hash: " + hash("c.txt") + "]"));
+    }
+
+    @Test
+    @DisplayName("readFiles shares one line budget across files instead of the per-file limit")
+    void sharedBudget() throws IOException {
+        String result = service(45).readFiles(List.of(
+                new ToolsService.FileRange("a.txt", null, null),
+                new ToolsService.FileRange("b.txt", null, null),
+                new ToolsService.FileRange("c.txt", null, null)));
+
+        assertTrue(result.contains("--- a.txt (lines 1-30 of 30 total)"), "per-file max-file-lines (10) does not apply");
+        assertTrue(result.contains("--- b.txt (lines 1-15 of 30 total) [hash: " + hash("b.txt") + "] [TRUNCATED: batch line budget exhausted, 15 more available]"));
+        assertTrue(result.contains("--- c.txt [SKIPPED: batch line budget of 45 lines exhausted]"));
+        assertFalse(result.contains("b.txt line 16"));
+    }
+
+    @Test
+    @DisplayName("readFiles reports unreadable entries inline but rejects unsafe paths up front")
+    void errorsInlineAndSecurityUpFront() {
+        ToolsService service = service(1000);
+
+        String result = service.readFiles(List.of(
+                new ToolsService.FileRange("missing.txt", null, null),
+                new ToolsService.FileRange("a.txt", 40, null),
+                new ToolsService.FileRange("b.txt", 1, 1)));
+        assertTrue(result.startsWith("Read 1 of 3 files"));
+        assertTrue(result.contains("--- missing.txt [ERROR: File not found: missing.txt]"));
+        assertTrue(result.contains("--- a.txt [ERROR: Validation failed for 'startLine': Start line 40 exceeds file length (30 lines)]"));
+        assertTrue(result.contains("1 | b.txt line 1"));
+
+        assertThrows(SecurityViolationException.class, () -> service.readFiles(List.of(
+                new ToolsService.FileRange("a.txt", null, null),
+                new ToolsService.FileRange("../outside.txt", null, null))));
+        assertThrows(ValidationException.class, () -> service.readFiles(List.of()));
+        List<ToolsService.FileRange> tooMany = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            tooMany.add(new ToolsService.FileRange("a.txt", 1, 1));
+        }
+        assertThrows(ValidationException.class, () -> service.readFiles(tooMany));
+    }
+}
@@ -0,0 +1,352 @@
+package com.simplecoder.service;
+
+import com.simplecoder.exception.ValidationException;
+import com.simplecoder.tool.AtomicFileWriter;
+import com.simplecoder.tool.FileContentCache;
+import com.simplecoder.tool.FileLocks;
+import com.simplecoder.tool.IgnoreRules;
+import com.simplecoder.tool.LineOffsetIndex;
+import com.simplecoder.tool.ParallelFileScanner;
+import com.simplecoder.tool.PathValidator;
+import com.simplecoder.tool.RepoTreeSnapshot;
+import com.simplecoder.tool.TrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for searchText result equivalence across the sequential, parallel and indexed search paths,
+ * and for cursor paging of searchText and listFiles.
+ */
+class ToolsServiceSearchTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PathValidator pathValidator;
+
+    @BeforeEach
+    void setup() throws IOException {
+        pathValidator = new PathValidator(tempDir.toString());
+        for (int d = 0; d < 5; d++) {
+            Path dir = Files.createDirectories(tempDir.resolve("pkg" + d));
+            for (int f = 0; f < 8; f++) {
+                StringBuilder content = new StringBuilder();
+                for (int line = 0; line < 20; line++) {
+                    content.append(line % 7 == 0 ? "TODO fix item " + d + "-" + f + "-" + line : "plain line " + line).append('\n');
+                }
+                Files.writeString(dir.resolve("File" + f + ".txt"), content);
+            }
+        }
+    }
+
+    private ToolsService sequentialService(int maxSearchResults) {
+        return new ToolsService(pathValidator, 100, 50, maxSearchResults);
+    }
+
+    private ToolsService parallelService(int maxSearchResults) {
+        return fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator), new ParallelFileScanner(8),
+                maxSearchResults, 5000);
+    }
+
+    private ToolsService fullService(TrigramIndex index, IgnoreRules ignoreRules, ParallelFileScanner scanner,
+                                     int maxSearchResults, long regexTimeoutMs) {
+        return fullService(index, ignoreRules, scanner, maxSearchResults, regexTimeoutMs, 30_000);
+    }
+
+    private ToolsService fullService(TrigramIndex index, IgnoreRules ignoreRules, ParallelFileScanner scanner,
+                                     int maxSearchResults, long regexTimeoutMs, long searchTimeoutMs) {
+        return new ToolsService(pathValidator, index, RepoTreeSnapshot.disabled(pathValidator), ignoreRules,
+                new LineOffsetIndex(1024, 256), new FileContentCache(1 << 20, 1 << 16),
+                new AtomicFileWriter(AtomicFileWriter.Durability.FILE), new FileLocks(64), scanner, 100, 1000, 50,
+                maxSearchResults, regexTimeoutMs, searchTimeoutMs, 8L << 20);
+    }
+
+    @Test
+    @DisplayName("parallel search returns the same ordered results as the sequential walk")
+    void parallelMatchesSequential() {
+        String sequential = sequentialService(1000).searchText("todo", ".", false, false);
+        String parallel = parallelService(1000).searchText("todo", ".", false, false);
+
+        assertEquals(sequential, parallel);
+        assertTrue(sequential.startsWith("Found 120 matches"));
+    }
+
+    @Test
+    @DisplayName("parallel search stops at max-search-results with the sequential prefix and truncation flag")
+    void parallelStopsAtCap() {
+        String sequential = sequentialService(17).searchText("TODO", ".", false, true);
+        String parallel = parallelService(17).searchText("TODO", ".", false, true);
+
+        assertEquals(sequential, parallel);
+        assertTrue(parallel.contains("[TRUNCATED: reached limit 17"));
+    }
+
+    @Test
+    @DisplayName("indexed search returns the same results as a full walk")
+    void indexedMatchesFullWalk() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1 << 20, 300);
+        index.rebuild();
+        ToolsService indexed = fullService(index, IgnoreRules.none(pathValidator), ParallelFileScanner.sequential(), 1000, 5000);
+
+        assertEquals(sequentialService(1000).searchText("item 3-", ".", false, false),
+                indexed.searchText("item 3-", ".", false, false));
+        assertEquals(sequentialService(1000).searchText("fix\\s+item 4", ".", true, false),
+                indexed.searchText("fix\\s+item 4", ".", true, false));
+    }
+
+    @Test
+    @DisplayName("indexed search finds files edited or created outside the agent after the index was built")
+    void indexedSeesExternalEdits() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1 << 20, 300);
+        index.rebuild();
+        ToolsService indexed = fullService(index, IgnoreRules.none(pathValidator), ParallelFileScanner.sequential(), 1000, 5000);
+        Path edited = tempDir.resolve("pkg1/File3.txt");
+        Files.writeString(edited, Files.readString(edited) + "externalMarker\n");
+        Files.writeString(tempDir.resolve("pkg2/New.txt"), "externalMarker\n");
+
+        String result = indexed.searchText("externalMarker", ".", false, true);
+
+        assertTrue(result.startsWith("Found 2 matches"), result);
+        assertTrue(result.contains("File3.txt"));
+        assertTrue(result.contains("New.txt"));
+    }
+
+    @Test
+    @DisplayName("byte-level literal search returns the same output as the equivalent quoted regex")
+    void literalMatchesQuotedRegex() {
+        ToolsService service = sequentialService(1000);
+
+        assertEquals(service.searchText("Todo Fix", ".", false, false).replace("'Todo Fix'", "'X'"),
+                service.searchText("\\QTodo Fix\\E", ".", true, false).replace("'\\QTodo Fix\\E'", "'X'"));
+    }
+
+    @Test
+    @DisplayName("literal search skips over invalid UTF-8 instead of failing")
+    void literalSearchToleratesInvalidUtf8() throws IOException {
+        Files.write(tempDir.resolve("blob.bin"), new byte[]{(byte) 0xFF, (byte) 0xFE, '\n', 'T', 'O', 'D', 'O', '\n'});
+
+        String result = sequentialService(1000).searchText("TODO", "blob.bin", false, true);
+
+        assertTrue(result.startsWith("Found 1 matches"));
+        assertTrue(result.contains("blob.bin:2:TODO"));
+    }
+
+    @Test
+    @DisplayName("literal prefiltered regex search returns the same results as an unanalyzed regex")
+    void prefilteredRegexMatchesUnfiltered() {
+        ToolsService service = sequentialService(1000);
+        String filtered = "fix\\s+item (2|3)-[0-3]";
+        // An inline flag group makes the pattern unanalyzable, so every line goes straight to the regex
+        String unfiltered = "(?-i)" + filtered;
+
+        assertEquals(service.searchText(unfiltered, ".", true, true).replace(unfiltered, "X"),
+                service.searchText(filtered, ".", true, true).replace(filtered, "X"));
+    }
+
+    @Test
+    @DisplayName("catastrophic backtracking fails fast with ValidationException once the regex budget is spent")
+    void catastrophicRegexFailsFast() throws IOException {
+        Files.writeString(tempDir.resolve("evil.txt"), "a".repeat(29));
+        ToolsService service = fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator),
+                ParallelFileScanner.sequential(), 50, 200);
+
+        long start = System.nanoTime();
+        ValidationException ex = assertThrows(ValidationException.class, () ->
+                service.searchText("(.*a){30}", "evil.txt", true, true));
+
+        assertTrue(ex.getMessage().contains("execution budget"));
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("the regex budget covers matching one line, not walking and reading many files")
+    void regexBudgetIsPerLine() throws IOException {
+        Path many = Files.createDirectories(tempDir.resolve("many"));
+        for (int i = 0; i < 2000; i++) {
+            Files.writeString(many.resolve("f" + i + ".txt"), "first line\nvalue = " + i + "\n");
+        }
+        ToolsService service = fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator),
+                ParallelFileScanner.sequential(), 5000, 5);
+
+        String result = service.searchText("value = \\d+", "many", true, true);
+
+        assertTrue(result.startsWith("Found 2000 matches"), result.lines().findFirst().orElse(""));
+        assertFalse(result.contains("TRUNCATED"));
+    }
+
+    @Test
+    @DisplayName("the overall search time limit truncates with its own message and a cursor to continue")
+    void searchTimeLimitTruncates() {
+        String full = sequentialService(1000).searchText("todo", ".", false, false);
+        ToolsService limited = fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator),
+                ParallelFileScanner.sequential(), 1000, 5000, 0);
+
+        String first = limited.searchText("todo", ".", false, false);
+        assertTrue(first.contains("[TRUNCATED: search time limit of 0 ms reached"), first.lines().findFirst().orElse(""));
+        assertFalse(first.contains("backtracking"));
+        assertNotNull(nextCursor(first));
+        assertEquals(bodyLines(full), collectPages(cursor -> limited.searchText("todo", ".", false, false, cursor)));
+    }
+
+    @Test
+    @DisplayName("the search time limit also stops matching inside a file of individually cheap but slow lines")
+    void searchTimeLimitStopsWithinFile() throws IOException {
+        // Each line takes tens of ms - well under the per-line budget - but all of them together take seconds
+        Files.writeString(tempDir.resolve("slow.txt"), ("a".repeat(17) + "\n").repeat(200));
+        ToolsService service = fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator),
+                ParallelFileScanner.sequential(), 50, 2000, 300);
+
+        long start = System.nanoTime();
+        String result = service.searchText("(.*a){18}", "slow.txt", true, true);
+
+        assertTrue(System.nanoTime() - start < 3_000_000_000L, "took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        String header = result.lines().findFirst().orElse("");
+        assertTrue(header.contains("[TRUNCATED: search time limit of 300 ms reached"), header);
+        assertFalse(header.contains("regex execution budget"), header);
+        assertNotNull(nextCursor(result));
+    }
+
+    @Test
+    @DisplayName("a line that exceeds the regex budget is reported and skipped by the cursor")
+    void regexBudgetOverrunCanBeSkipped() throws IOException {
+        Files.writeString(tempDir.resolve("mixed.txt"), "b 1\n" + "a".repeat(20) + "\nb 3\n");
+        ToolsService service = fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator),
+                ParallelFileScanner.sequential(), 50, 50, 30_000);
+        String pattern = "b|(.*a){21}";
+
+        String first = service.searchText(pattern, "mixed.txt", true, true);
+        String header = first.lines().findFirst().orElse("");
+        assertTrue(header.contains("exceeded on line 2 of mixed.txt; that line is skipped"), header);
+
+        List<String> pages = collectPages(cursor -> service.searchText(pattern, "mixed.txt", true, true, cursor));
+        assertEquals(List.of("mixed.txt:1:b 1", "mixed.txt:3:b 3"), pages);
+    }
+
+    @Test
+    @DisplayName("searchMultiple groups matches by pattern with the same lines searchText finds")
+    void searchMultipleMatchesIndividualSearches() {
+        ToolsService service = sequentialService(1000);
+
+        String combined = service.searchMultiple(List.of("item 1-2", "ITEM 4-7"), ".", false);
+
+        for (String pattern : List.of("item 1-2", "ITEM 4-7")) {
+            String single = service.searchText(pattern, ".", false, false);
+            String lines = single.substring(single.indexOf("\n\n") + 2);
+            assertTrue(combined.contains("=== '" + pattern + "' (" + lines.split("\n").length + " matches) ===\n" + lines));
+        }
+    }
+
+    @Test
+    @DisplayName("searchMultiple caps each pattern separately and marks it truncated")
+    void searchMultipleCapsPerPattern() {
+        String result = sequentialService(5).searchMultiple(List.of("TODO", "item 0-0-0"), ".", true);
+
+        assertTrue(result.contains("=== 'TODO' (5 matches) [TRUNCATED: reached limit 5"));
+        assertTrue(result.contains("=== 'item 0-0-0' (1 matches) ==="));
+    }
+
+    @Test
+    @DisplayName("searchMultiple rejects an empty pattern list")
+    void searchMultipleEmptyPatterns() {
+        assertThrows(ValidationException.class, () -> sequentialService(5).searchMultiple(List.of(), ".", false));
+    }
+
+    @Test
+    @DisplayName("searchText pages joined via cursors equal one unlimited search")
+    void searchPagesConcatenate() {
+        String full = sequentialService(1000).searchText("todo", ".", false, false);
+
+        for (ToolsService paged : List.of(sequentialService(7), parallelService(7))) {
+            List<String> pages = collectPages(cursor -> paged.searchText("todo", ".", false, false, cursor));
+            assertEquals(bodyLines(full), pages);
+        }
+    }
+
+    @Test
+    @DisplayName("listFiles glob pages joined via cursors equal one unlimited listing")
+    void listPagesConcatenate() {
+        String full = new ToolsService(pathValidator, 100, 1000, 50).listFiles("**/File*.txt");
+        ToolsService paged = new ToolsService(pathValidator, 100, 6, 50);
+
+        List<String> pages = collectPages(cursor -> paged.listFiles("**/File*.txt", cursor));
+
+        assertEquals(40, pages.size());
+        assertEquals(bodyLines(full), pages);
+    }
+
+    @Test
+    @DisplayName("a cursor issued for another query is rejected")
+    void cursorFromOtherQueryRejected() {
+        String first = sequentialService(3).searchText("todo", ".", false, false);
+
+        ValidationException ex = assertThrows(ValidationException.class, () ->
+                sequentialService(3).searchText("fix", ".", false, false, nextCursor(first)));
+        assertTrue(ex.getMessage().contains("different query"));
+        assertThrows(ValidationException.class, () -> sequentialService(3).searchText("todo", ".", false, false, "%%%"));
+    }
+
+    private static List<String> collectPages(Function<String, String> call) {
+        List<String> lines = new ArrayList<>();
+        String cursor = null;
+        do {
+            String page = call.apply(cursor);
+            lines.addAll(bodyLines(page));
+            cursor = nextCursor(page);
+        } while (cursor != null);
+        return lines;
+    }
+
+    private static List<String> bodyLines(String output) {
+        return Arrays.asList(output.substring(output.indexOf("\n\n") + 2).split("\n"));
+    }
+
+    private static String nextCursor(String output) {
+        Matcher m = Pattern.compile("cursor='([^']+)'").matcher(output.lines().findFirst().orElse(""));
+        return m.find() ? m.group(1) : null;
+    }
+
+    @Test
+    @DisplayName("ignored directories are skipped by walks but searchable when named explicitly")
+    void ignoredDirectoriesSkipped() throws IOException {
+        Files.createDirectories(tempDir.resolve("target/generated"));
+        Files.writeString(tempDir.resolve("target/generated/Out.txt"), "TODO fix item generated\n");
+        ToolsService service = fullService(TrigramIndex.disabled(pathValidator), new IgnoreRules(pathValidator, "target/", true),
+                ParallelFileScanner.sequential(), 1000, 5000);
+
+        assertFalse(service.searchText("item generated", ".", false, false).contains("target/"));
+        assertFalse(service.listFiles("**/*.txt").contains("target/"));
+        assertTrue(service.searchText("item generated", "target", false, false)
+                .contains("target/generated/Out.txt:1:"));
+    }
+
+    @Test
+    @DisplayName("cached single-file reads and searches see replaceText edits")
+    void cachedReadsSeeEdits() throws IOException {
+        Files.writeString(tempDir.resolve("cached.txt"), "alpha TODO\nbeta\n");
+        ToolsService service = fullService(TrigramIndex.disabled(pathValidator), IgnoreRules.none(pathValidator),
+                ParallelFileScanner.sequential(), 1000, 5000);
+
+        assertTrue(service.readFile("cached.txt", null, null).contains("alpha TODO"));
+        assertTrue(service.searchText("TODO", "cached.txt", false, false).contains("cached.txt:1:alpha TODO"));
+
+        service.replaceText("cached.txt", "alpha TODO", "gamma TODO");
+
+        assertTrue(service.readFile("cached.txt", null, null).contains("gamma TODO"));
+        assertTrue(service.searchText("TODO", "cached.txt", false, false).contains("cached.txt:1:gamma TODO"));
+        assertTrue(service.searchText("gam+a", "cached.txt", true, false).contains("cached.txt:1:gamma TODO"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<String> search(AhoCorasick automaton, Path file) throws IOException {
+        List<String> hits = new ArrayList<>();
+        automaton.search(file, (lineNumber, line, matched) -> hits.add(lineNumber + ":" + matched + ":" + line));
+        return hits;
+    }
+
+    @Test
+    @DisplayName("finds overlapping and nested patterns on each line")
+    void overlappingPatterns() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "ushers\nnothing to see\nhis hers\n");
+
+        List<String> hits = search(new AhoCorasick(List.of("he", "she", "his", "hers"), true), file);
+
+        assertEquals(List.of("1:{0, 1, 3}:ushers", "3:{0, 2, 3}:his hers"), hits);
+    }
+
+    @Test
+    @DisplayName("case-insensitive mode folds ASCII letters and matches never span lines")
+    void caseInsensitiveAndLineBounded() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "FooBar\r\nfoo\nbar");
+
+        assertEquals(List.of("1:{0}:FooBar"), search(new AhoCorasick(List.of("foobar"), false), file));
+        assertEquals(List.of(), search(new AhoCorasick(List.of("foobar"), true), file));
+        assertEquals(List.of(), search(new AhoCorasick(List.of("foo\nbar"), true), file));
+    }
+
+    @Test
+    @DisplayName("unterminated last line and long lines across chunks are scanned")
+    void largeFile() throws IOException {
+        Path file = tempDir.resolve("big.txt");
+        Files.writeString(file, "y".repeat(150_000) + "alpha\n" + "z".repeat(10) + "beta");
+
+        assertEquals(List.of("1:{0}", "2:{1}"),
+                search(new AhoCorasick(List.of("alpha", "beta"), true), file).stream()
+                        .map(hit -> hit.substring(0, hit.lastIndexOf(':')))
+                        .toList());
+    }
+}
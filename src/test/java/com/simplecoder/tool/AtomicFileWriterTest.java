@@ -0,0 +1,67 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AtomicFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Path> directoryContents() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    @DisplayName("content is replaced and no temp file is left behind, for every durability level")
+    void replacesContent() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "old content that is longer\n");
+        for (AtomicFileWriter.Durability durability : AtomicFileWriter.Durability.values()) {
+            new AtomicFileWriter(durability).write(file, ("new " + durability + "\n").getBytes());
+
+            assertEquals("new " + durability + "\n", Files.readString(file));
+            assertEquals(List.of(file), directoryContents());
+        }
+    }
+
+    @Test
+    @DisplayName("POSIX permissions of the target are preserved")
+    void preservesPermissions() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path script = Files.writeString(tempDir.resolve("run.sh"), "echo old\n");
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-x---"));
+
+        new AtomicFileWriter(AtomicFileWriter.Durability.FILE).write(script, "echo new\n".getBytes());
+
+        assertEquals("rwxr-x---", PosixFilePermissions.toString(Files.getPosixFilePermissions(script)));
+    }
+
+    @Test
+    @DisplayName("a failing write leaves the original file untouched and removes the temp file")
+    void failedWriteKeepsOriginal() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("keep.txt"), "original\n");
+
+        assertThrows(IOException.class, () -> new AtomicFileWriter(AtomicFileWriter.Durability.NONE).write(file, channel -> {
+            channel.write(ByteBuffer.wrap("partial".getBytes()));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("original\n", Files.readString(file));
+        assertEquals(List.of(file), directoryContents());
+    }
+}
@@ -0,0 +1,92 @@
+package com.simplecoder.tool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileContentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("repeated reads are hits until the file changes on disk")
+    void hitsUntilChanged() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "one\n");
+        FileContentCache cache = new FileContentCache(1024, 1024);
+
+        assertEquals("one\n", new String(cache.get(file)));
+        assertEquals("one\n", new String(cache.get(file)));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+
+        Files.writeString(file, "two\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+        assertEquals("two\n", new String(cache.get(file)));
+        assertEquals(2, cache.stats().misses());
+        assertEquals(1, cache.stats().entries());
+        assertEquals(4, cache.stats().bytes());
+    }
+
+    @Test
+    @DisplayName("least recently used entries are evicted to stay within max-bytes")
+    void evictsByBytes() throws IOException {
+        Path a = Files.writeString(tempDir.resolve("a.txt"), "a".repeat(40));
+        Path b = Files.writeString(tempDir.resolve("b.txt"), "b".repeat(40));
+        Path c = Files.writeString(tempDir.resolve("c.txt"), "c".repeat(40));
+        FileContentCache cache = new FileContentCache(100, 100);
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a); // b is now least recently used
+        cache.get(c);
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(80, cache.stats().bytes());
+        cache.get(a);
+        assertEquals(2, cache.stats().hits());
+        cache.get(b);
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    @DisplayName("oversized files are not cached, disabled caches store nothing, invalidate drops the entry")
+    void oversizeDisabledAndInvalidate() throws IOException {
+        Path small = Files.writeString(tempDir.resolve("small.txt"), "x");
+        Path big = Files.writeString(tempDir.resolve("big.txt"), "y".repeat(200));
+        FileContentCache cache = new FileContentCache(1024, 100);
+
+        assertNull(cache.get(big));
+        assertNotNull(cache.get(small));
+        cache.invalidate(small);
+        assertEquals(0, cache.stats().entries());
+        assertEquals(0, cache.stats().bytes());
+
+        assertNull(FileContentCache.disabled().get(small));
+    }
+
+    @Test
+    @DisplayName("hit and miss counts are exported as Micrometer meters")
+    void exportsMeters() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("m.txt"), "m");
+        FileContentCache cache = new FileContentCache(1024, 1024);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get(file);
+        cache.get(file);
+
+        assertEquals(1.0, registry.get("simplecoder.file.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("simplecoder.file.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("simplecoder.file.cache.size").gauge().value());
+    }
+}
@@ -0,0 +1,56 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileLocksTest {
+
+    @Test
+    @DisplayName("a locked file blocks other threads until released; other stripes stay free")
+    void sameFileBlocks() throws Exception {
+        FileLocks locks = new FileLocks(1 << 16);
+        Path a = Path.of("/repo/A.java");
+        Path b = Path.of("/repo/B.java");
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        CompletableFuture<Void> waiter;
+        try (FileLocks.Held held = locks.lock(a)) {
+            waiter = CompletableFuture.runAsync(() -> {
+                try (FileLocks.Held again = locks.lock(a)) {
+                    acquired.countDown();
+                }
+            });
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS), "second lock of the same file must wait");
+            CompletableFuture.runAsync(() -> locks.lock(b).close()).get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("batches locking the same files in opposite order do not deadlock")
+    void lockAllIsDeadlockFree() throws Exception {
+        FileLocks locks = new FileLocks(8);
+        List<Path> forward = List.of(Path.of("/repo/1"), Path.of("/repo/2"), Path.of("/repo/3"), Path.of("/repo/4"));
+        List<Path> backward = forward.reversed();
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[4];
+        for (int w = 0; w < workers.length; w++) {
+            List<Path> order = w % 2 == 0 ? forward : backward;
+            workers[w] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    locks.lockAll(order).close();
+                }
+            });
+        }
+        CompletableFuture.allOf(workers).get(30, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,90 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobMatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("mayMatchBelow follows the pattern segment by segment")
+    void mayMatchBelow() {
+        GlobMatcher glob = GlobMatcher.compile("src/*/main/**/*.java");
+
+        assertTrue(glob.mayMatchBelow(""));
+        assertTrue(glob.mayMatchBelow("src"));
+        assertTrue(glob.mayMatchBelow("src/app"));
+        assertTrue(glob.mayMatchBelow("src/app/main"));
+        assertTrue(glob.mayMatchBelow("src/app/main/a/b/c"));
+        assertFalse(glob.mayMatchBelow("docs"));
+        assertFalse(glob.mayMatchBelow("src/app/test"));
+    }
+
+    @Test
+    @DisplayName("patterns with ** inside a segment or braces spanning '/' are never pruned")
+    void conservativeFallback() {
+        assertTrue(GlobMatcher.compile("src/foo**.java").mayMatchBelow("src/anything/else"));
+        assertTrue(GlobMatcher.compile("{src/main,docs}/*.md").mayMatchBelow("other"));
+        assertFalse(GlobMatcher.compile("{src,docs}/*.md").mayMatchBelow("other"));
+        assertFalse(GlobMatcher.compile("*.md").mayMatchBelow("docs"));
+    }
+
+    @Test
+    @DisplayName("pruning visits fewer directories and returns the same matches")
+    void pruningReducesDirectoriesVisited() throws IOException {
+        for (int module = 0; module < 10; module++) {
+            for (String kind : List.of("main", "test", "resources")) {
+                for (int pkg = 0; pkg < 10; pkg++) {
+                    Path dir = Files.createDirectories(tempDir.resolve("src/m" + module + "/" + kind + "/pkg" + pkg));
+                    Files.writeString(dir.resolve("Type" + pkg + ".java"), "class Type {}");
+                }
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            Files.createDirectories(tempDir.resolve("target/classes/gen" + i));
+        }
+
+        for (String pattern : List.of("src/*/main/**/*.java", "src/m3/**/*.java", "*.md")) {
+            GlobMatcher glob = GlobMatcher.compile(pattern);
+            AtomicInteger fullVisits = new AtomicInteger();
+            AtomicInteger prunedVisits = new AtomicInteger();
+
+            List<String> full = matches(glob, fullVisits, dir -> true);
+            List<String> pruned = matches(glob, prunedVisits,
+                    dir -> glob.mayMatchBelow(tempDir.relativize(dir).toString().replace('\\', '/')));
+
+            assertEquals(full, pruned, pattern);
+            assertTrue(prunedVisits.get() * 2 < fullVisits.get(),
+                    pattern + ": " + prunedVisits.get() + " directories visited pruned vs " + fullVisits.get() + " full");
+        }
+    }
+
+    private List<String> matches(GlobMatcher glob, AtomicInteger visits, Predicate<Path> descendInto) {
+        SortedFileWalker.Lister counting = dir -> {
+            visits.incrementAndGet();
+            return SortedFileWalker.DISK.list(dir);
+        };
+        List<String> result = new ArrayList<>();
+        for (Iterator<SortedFileWalker.Entry> it = new SortedFileWalker(counting, tempDir, null, false, descendInto); it.hasNext(); ) {
+            String relative = tempDir.relativize(it.next().path()).toString().replace('\\', '/');
+            if (glob.matches(relative)) {
+                result.add(relative);
+            }
+        }
+        return result;
+    }
+}
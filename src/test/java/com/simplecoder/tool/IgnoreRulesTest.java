@@ -0,0 +1,117 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IgnoreRulesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PathValidator pathValidator;
+
+    @BeforeEach
+    void setup() throws IOException {
+        pathValidator = new PathValidator(tempDir.toString());
+        for (String dir : List.of("src/main", "src/generated", "target/classes", "node_modules/lib", "docs/build", "web/dist")) {
+            Files.createDirectories(tempDir.resolve(dir));
+        }
+        for (String file : List.of("src/main/App.java", "src/main/App.log", "src/main/keep.log", "src/generated/Gen.java",
+                "target/classes/App.class", "node_modules/lib/index.js", "docs/build/page.html", "docs/guide.md",
+                "web/dist/bundle.js", "web/index.html")) {
+            Files.writeString(tempDir.resolve(file), "x");
+        }
+        Files.writeString(tempDir.resolve(".gitignore"), "# build outputs\n*.log\n/src/generated/\n");
+        Files.writeString(tempDir.resolve("src/main/.gitignore"), "!keep.log\n");
+        Files.writeString(tempDir.resolve("web/.gitignore"), "dist\n");
+    }
+
+    private List<String> walk(IgnoreRules rules, AtomicInteger listed) {
+        SortedFileWalker.Lister counting = dir -> {
+            listed.incrementAndGet();
+            return SortedFileWalker.DISK.list(dir);
+        };
+        List<String> paths = new ArrayList<>();
+        for (Iterator<SortedFileWalker.Entry> it = new SortedFileWalker(rules.filter(counting), tempDir, null, false); it.hasNext(); ) {
+            paths.add(tempDir.relativize(it.next().path()).toString().replace('\\', '/'));
+        }
+        return paths;
+    }
+
+    @Test
+    @DisplayName("defaults and hierarchical .gitignore files prune whole subtrees")
+    void prunesIgnoredSubtrees() {
+        IgnoreRules rules = new IgnoreRules(pathValidator, "target/,node_modules/,build/", true);
+        AtomicInteger listed = new AtomicInteger();
+
+        List<String> paths = walk(rules, listed);
+
+        assertTrue(paths.contains("src/main/App.java"));
+        assertTrue(paths.contains("src/main/keep.log"), "negation in nested .gitignore re-includes");
+        assertTrue(paths.contains("docs/guide.md"));
+        assertTrue(paths.contains("web/index.html"));
+        for (String ignored : List.of("src/main/App.log", "src/generated", "target", "node_modules", "docs/build", "web/dist")) {
+            assertFalse(paths.contains(ignored), ignored);
+        }
+        assertTrue(paths.stream().noneMatch(p -> p.startsWith("target/") || p.startsWith("node_modules/")));
+        assertEquals(5, listed.get(), "only root, src, src/main, docs and web are listed");
+    }
+
+    @Test
+    @DisplayName("a default with a leading '/' only ignores the top-level directory")
+    void anchoredDefaultsOnlyMatchAtRoot() throws IOException {
+        Files.createDirectories(tempDir.resolve("build/libs"));
+        Files.writeString(tempDir.resolve("build/libs/app.jar"), "x");
+        IgnoreRules rules = new IgnoreRules(pathValidator, "/build/,node_modules/", false);
+
+        List<String> paths = walk(rules, new AtomicInteger());
+
+        assertFalse(paths.contains("build"));
+        assertTrue(paths.contains("docs/build/page.html"), "nested build directory stays visible");
+        assertFalse(paths.contains("node_modules"));
+    }
+
+    @Test
+    @DisplayName("isExcluded reports paths inside ignored directories")
+    void isExcluded() {
+        IgnoreRules rules = new IgnoreRules(pathValidator, "target/", true);
+
+        assertTrue(rules.isExcluded(tempDir.resolve("target/classes")));
+        assertTrue(rules.isExcluded(tempDir.resolve("src/generated/Gen.java")));
+        assertFalse(rules.isExcluded(tempDir.resolve("src/main")));
+        assertFalse(rules.isExcluded(tempDir));
+    }
+
+    @Test
+    @DisplayName("gitignore globs translate to path regexes")
+    void globTranslation() {
+        assertTrue("a/b/c.txt".matches(IgnoreRules.toRegex("**/c.txt")));
+        assertTrue("c.txt".matches(IgnoreRules.toRegex("**/c.txt")));
+        assertTrue("logs/x/y".matches(IgnoreRules.toRegex("logs/**")));
+        assertTrue("a/x/y/b".matches(IgnoreRules.toRegex("a/**/b")));
+        assertTrue("file1.txt".matches(IgnoreRules.toRegex("file[0-9].txt")));
+        assertFalse("fileA.txt".matches(IgnoreRules.toRegex("file[!A-Z].txt")));
+        assertFalse("a/b.txt".matches(IgnoreRules.toRegex("*.txt")));
+    }
+
+    @Test
+    @DisplayName("none() keeps every entry")
+    void noneKeepsEverything() {
+        List<String> paths = walk(IgnoreRules.none(pathValidator), new AtomicInteger());
+
+        assertTrue(paths.contains("node_modules/lib/index.js"));
+        assertTrue(paths.contains("src/main/App.log"));
+    }
+}
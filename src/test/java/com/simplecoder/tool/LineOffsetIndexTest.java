@@ -0,0 +1,125 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineOffsetIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("range reads equal Files.readAllLines for every terminator style")
+    void rangesMatchReadAllLines() throws IOException {
+        StringBuilder content = new StringBuilder();
+        String[] terminators = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 1000; i++) {
+            content.append(i % 11 == 0 ? "" : "line " + i + " ü").append(terminators[i % 3]);
+        }
+        content.append("last line without terminator");
+        Path file = tempDir.resolve("mixed.txt");
+        Files.writeString(file, content);
+        List<String> expected = Files.readAllLines(file);
+        LineOffsetIndex index = new LineOffsetIndex(16, 8);
+
+        assertEquals(expected.size(), index.lineCount(file));
+        for (int start : new int[]{1, 2, 16, 17, 33, 500, expected.size() - 1, expected.size()}) {
+            int count = 40;
+            int end = Math.min(start - 1 + count, expected.size());
+            assertEquals(expected.subList(start - 1, end), index.readLines(file, start, count), "start " + start);
+        }
+
+        LineOffsetIndex fromContent = new LineOffsetIndex(16, 8);
+        FileContentCache.Content bytes = new FileContentCache(1 << 20, 1 << 20).read(file);
+        assertEquals(expected.size(), fromContent.lineCount(file, bytes));
+        assertEquals(expected.subList(480, 520), fromContent.readLines(file, bytes, 481, 40));
+    }
+
+    @Test
+    @DisplayName("index is rebuilt when the file changes")
+    void rebuildsOnChange() throws IOException {
+        Path file = tempDir.resolve("grow.txt");
+        Files.writeString(file, "a\nb\n");
+        LineOffsetIndex index = new LineOffsetIndex(1024, 8);
+        assertEquals(2, index.lineCount(file));
+
+        Files.writeString(file, "a\nb\nc\nd\n");
+
+        assertEquals(4, index.lineCount(file));
+        assertEquals(List.of("c", "d"), index.readLines(file, 3, 10));
+    }
+
+    @Test
+    @DisplayName("content read before a change is not indexed under the changed file's attributes")
+    void contentKeepsItsOwnVersion() throws IOException {
+        Path file = tempDir.resolve("race.txt");
+        Files.writeString(file, "a\nb\n");
+        FileContentCache.Content before = new FileContentCache(1 << 20, 1 << 20).read(file);
+        LineOffsetIndex index = new LineOffsetIndex(1024, 8);
+
+        Files.writeString(file, "a\nb\nc\nd\n");
+
+        assertEquals(2, index.lineCount(file, before));
+        assertEquals(4, index.lineCount(file));
+        assertEquals(2, index.lineCount(file, new FileContentCache.Content(before.bytes(), null)));
+        assertEquals(4, index.lineCount(file));
+    }
+
+    @Test
+    @DisplayName("empty files have no lines and malformed UTF-8 in the window is reported")
+    void emptyAndMalformed() throws IOException {
+        Path empty = Files.writeString(tempDir.resolve("empty.txt"), "");
+        Path binary = Files.write(tempDir.resolve("bad.txt"), new byte[]{'o', 'k', '\n', (byte) 0xC3, (byte) 0x28, '\n'});
+        LineOffsetIndex index = new LineOffsetIndex(1024, 8);
+
+        assertEquals(0, index.lineCount(empty));
+        assertEquals(List.of("ok"), index.readLines(binary, 1, 1));
+        assertThrows(CharacterCodingException.class, () -> index.readLines(binary, 2, 1));
+    }
+
+    @Test
+    @DisplayName("tail reads equal the end of Files.readAllLines for every terminator style")
+    void tailMatchesReadAllLines() throws IOException {
+        LineOffsetIndex index = new LineOffsetIndex(1024, 8);
+        String[] contents = {"a", "a\n", "a\r\n", "a\r", "\n", "\n\n", "a\r\rb", "a\r\nb\r\n", "x\ny\rz\r\n\r\nlast"};
+        for (String content : contents) {
+            Path file = Files.writeString(tempDir.resolve("tail.txt"), content);
+            List<String> expected = Files.readAllLines(file);
+            for (int count = 1; count <= expected.size() + 1; count++) {
+                LineOffsetIndex.Tail tail = index.readTail(file, count);
+                int from = Math.max(0, expected.size() - count);
+                assertEquals(expected.subList(from, expected.size()), tail.lines(), "content " + content.replace("\r", "\\r").replace("\n", "\\n") + ", count " + count);
+                assertEquals(from > 0, tail.hasEarlierLines());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("tail reads cross map windows and report the line count only when already indexed")
+    void tailAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 120_000; i++) {
+            content.append("log line ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path file = Files.writeString(tempDir.resolve("big.log"), content);
+        LineOffsetIndex index = new LineOffsetIndex(1024, 8);
+
+        LineOffsetIndex.Tail tail = index.readTail(file, 115_000);
+        assertEquals(115_000, tail.lines().size());
+        assertEquals("log line 5001", tail.lines().get(0));
+        assertEquals("log line 120000", tail.lines().get(114_999));
+        assertEquals(-1, tail.totalLines());
+
+        index.lineCount(file);
+        assertEquals(120_000, index.readTail(file, 3).totalLines());
+    }
+}
@@ -0,0 +1,106 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineRendererTest {
+
+    private static final String CHARS = " \téabcXYZ{}();%";
+
+    /**
+     * ToolsService.formatLinesWithNumbers as it was before LineRenderer, kept verbatim as the reference output.
+     */
+    private static String formatNumbered(List<String> lines, int startLineNum) {
+        StringBuilder content = new StringBuilder();
+        int lineNumWidth = String.valueOf(startLineNum + lines.size() - 1).length();
+
+        for (int i = 0; i < lines.size(); i++) {
+            int lineNum = startLineNum + i;
+            content.append(String.format("%" + lineNumWidth + "d | %s", lineNum, lines.get(i)));
+            if (i < lines.size() - 1) {
+                content.append("\n");
+            }
+        }
+        return content.toString();
+    }
+
+    private static String formatMatch(String relativePath, int lineNumber, String line) {
+        String snippet = line.trim();
+        if (snippet.length() > 100) {
+            snippet = snippet.substring(0, 100) + "...";
+        }
+        return String.format("%s:%d:%s", relativePath, lineNumber, snippet);
+    }
+
+    private static List<String> randomLines(Random random, int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(4) == 0 ? 150 + random.nextInt(100) : random.nextInt(80);
+            for (int j = 0; j < length; j++) {
+                line.append(CHARS.charAt(random.nextInt(CHARS.length())));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    @Test
+    @DisplayName("output is identical to the String.format rendering")
+    void matchesStringFormat() {
+        Random random = new Random(42);
+        for (int start : new int[]{1, 9, 95, 998, 99_990}) {
+            List<String> lines = randomLines(random, 1 + random.nextInt(30));
+            assertEquals(formatNumbered(lines, start), LineRenderer.numberedLines(lines, start), "start " + start);
+        }
+        assertEquals("", LineRenderer.numberedLines(List.of(), 1));
+
+        for (String line : randomLines(random, 500)) {
+            int lineNumber = random.nextInt(100_000);
+            assertEquals(formatMatch("src/A.java", lineNumber, line), LineRenderer.match("src/A.java", lineNumber, line));
+        }
+        assertEquals(formatMatch("a", 1, "   "), LineRenderer.match("a", 1, "   "));
+    }
+
+    @Test
+    @DisplayName("negative tail numbering is padded to the widest number, which is the first one")
+    void padsNegativeNumbersToFirst() {
+        assertEquals("-10 | a\n -9 | b\n -8 | c", LineRenderer.numberedLines(List.of("a", "b", "c"), -10));
+        assertEquals("-2 | a\n-1 | b", LineRenderer.numberedLines(List.of("a", "b"), -2));
+    }
+
+    @Test
+    @DisplayName("a 500-line read allocates a fraction of what String.format did")
+    void allocatesLessThanStringFormat() {
+        List<String> lines = randomLines(new Random(7), 500);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        int rounds = 200;
+        for (int i = 0; i < rounds; i++) { // warm up both paths
+            formatNumbered(lines, 1);
+            LineRenderer.numberedLines(lines, 1);
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < rounds; i++) {
+            formatNumbered(lines, 1);
+        }
+        long formatBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < rounds; i++) {
+            LineRenderer.numberedLines(lines, 1);
+        }
+        long rendererBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(rendererBytes * 3 < formatBytes,
+                "renderer allocated " + rendererBytes + " bytes vs " + formatBytes + " for String.format");
+    }
+}
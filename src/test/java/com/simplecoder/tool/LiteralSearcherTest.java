@@ -0,0 +1,97 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteralSearcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<String> search(LiteralSearcher searcher, Path file) throws IOException {
+        List<String> hits = new ArrayList<>();
+        searcher.search(file, (lineNumber, line) -> hits.add(lineNumber + ":" + line));
+        return hits;
+    }
+
+    @Test
+    @DisplayName("reports each matching line once with 1-based line numbers")
+    void reportsMatchingLines() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "foo\nbar foo foo\nbaz\nfoo");
+
+        assertEquals(List.of("1:foo", "2:bar foo foo", "4:foo"), search(new LiteralSearcher("foo", true), file));
+    }
+
+    @Test
+    @DisplayName("case-insensitive mode folds ASCII letters")
+    void caseInsensitive() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "Hello World\nHELLO\nhelo");
+
+        assertEquals(List.of("1:Hello World", "2:HELLO"), search(new LiteralSearcher("hello", false), file));
+        assertEquals(List.of(), search(new LiteralSearcher("hello", true), file));
+    }
+
+    @Test
+    @DisplayName("CRLF terminators are stripped from decoded lines")
+    void crlfLines() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "one\r\ntwo target\r\nthree\r\n");
+
+        assertEquals(List.of("2:two target"), search(new LiteralSearcher("target", true), file));
+    }
+
+    @Test
+    @DisplayName("invalid UTF-8 does not abort the scan")
+    void invalidUtf8() throws IOException {
+        Path file = tempDir.resolve("bin.dat");
+        Files.write(file, new byte[]{(byte) 0xC3, (byte) 0x28, '\n', 'k', 'e', 'y', (byte) 0xFF, '\n'});
+
+        List<String> hits = search(new LiteralSearcher("key", true), file);
+
+        assertEquals(1, hits.size());
+        assertTrue(hits.get(0).startsWith("2:key"));
+    }
+
+    @Test
+    @DisplayName("matches spanning read chunks and lines longer than a chunk are found")
+    void largeFile() throws IOException {
+        Path file = tempDir.resolve("big.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            content.append("line ").append(i).append(i == 15_000 ? " needle" : "").append('\n');
+        }
+        content.append("x".repeat(200_000)).append("needle");
+        Files.writeString(file, content);
+
+        List<String> hits = search(new LiteralSearcher("needle", true), file);
+
+        assertEquals(2, hits.size());
+        assertEquals("15001:line 15000 needle", hits.get(0));
+        assertTrue(hits.get(1).startsWith("20001:xxx"));
+    }
+
+    @Test
+    @DisplayName("search returns the line count, or stop line plus one when stopped with content remaining")
+    void returnsKnownLineCount() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "hit\nmiss\nhit");
+        Path last = tempDir.resolve("b.txt");
+        Files.writeString(last, "miss\nhit\n");
+
+        assertEquals(3, new LiteralSearcher("hit", true).search(file, (n, l) -> true));
+        assertEquals(2, new LiteralSearcher("hit", true).search(file, (n, l) -> false));
+        assertEquals(2, new LiteralSearcher("hit", true).search(last, (n, l) -> false));
+        assertEquals(2, new LiteralSearcher("nothing", true).search(last, (n, l) -> true));
+    }
+}
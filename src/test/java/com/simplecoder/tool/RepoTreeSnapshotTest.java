@@ -0,0 +1,93 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepoTreeSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RepoTreeSnapshot snapshot;
+
+    @BeforeEach
+    void setup() throws IOException {
+        Files.createDirectories(tempDir.resolve("src/main"));
+        Files.createDirectories(tempDir.resolve("docs"));
+        Files.writeString(tempDir.resolve("src/main/App.java"), "class App {}");
+        Files.writeString(tempDir.resolve("docs/README.md"), "# docs");
+        PathValidator pathValidator = new PathValidator(tempDir.toString());
+        snapshot = new RepoTreeSnapshot(pathValidator, IgnoreRules.none(pathValidator), true);
+    }
+
+    @AfterEach
+    void teardown() {
+        snapshot.shutdown();
+    }
+
+    private List<Path> walk(SortedFileWalker.Lister lister) {
+        List<Path> paths = new ArrayList<>();
+        for (Iterator<SortedFileWalker.Entry> it = new SortedFileWalker(lister, tempDir, null, false); it.hasNext(); ) {
+            paths.add(it.next().path());
+        }
+        return paths;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached within 10s");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("snapshot walk equals a disk walk once built")
+    void snapshotMatchesDisk() throws InterruptedException {
+        snapshot.start();
+        await(snapshot::isReady);
+
+        assertEquals(walk(SortedFileWalker.DISK), walk(snapshot));
+    }
+
+    @Test
+    @DisplayName("created and deleted entries are applied from watch events")
+    void appliesWatchEvents() throws IOException, InterruptedException {
+        snapshot.start();
+        await(snapshot::isReady);
+
+        Path newDir = Files.createDirectories(tempDir.resolve("src/test"));
+        Files.writeString(newDir.resolve("AppTest.java"), "class AppTest {}");
+        await(() -> walk(snapshot).contains(newDir.resolve("AppTest.java")));
+
+        Files.delete(tempDir.resolve("docs/README.md"));
+        Files.delete(tempDir.resolve("docs"));
+        await(() -> !walk(snapshot).contains(tempDir.resolve("docs")));
+
+        assertEquals(walk(SortedFileWalker.DISK), walk(snapshot));
+    }
+
+    @Test
+    @DisplayName("disabled snapshot reads every directory from disk")
+    void disabledReadsDisk() throws IOException {
+        RepoTreeSnapshot disabled = RepoTreeSnapshot.disabled(new PathValidator(tempDir.toString()));
+        disabled.start();
+        Files.writeString(tempDir.resolve("new.txt"), "x");
+
+        assertFalse(disabled.isReady());
+        assertTrue(walk(disabled).contains(tempDir.resolve("new.txt")));
+    }
+}
@@ -0,0 +1,67 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedFileWalkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        Files.createDirectories(tempDir.resolve("a/b"));
+        Files.createDirectories(tempDir.resolve("c"));
+        Files.writeString(tempDir.resolve("a/b/one.txt"), "1");
+        Files.writeString(tempDir.resolve("a/two.txt"), "2");
+        Files.writeString(tempDir.resolve("a-file.txt"), "3");
+        Files.writeString(tempDir.resolve("c/three.txt"), "4");
+    }
+
+    private List<String> walk(SortedFileWalker walker) {
+        List<String> result = new ArrayList<>();
+        for (Iterator<SortedFileWalker.Entry> it = walker; it.hasNext(); ) {
+            result.add(tempDir.relativize(it.next().path()).toString().replace('\\', '/'));
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("walk yields each directory before its contents, siblings sorted by name")
+    void deterministicOrder() {
+        assertEquals(List.of("a", "a/b", "a/b/one.txt", "a/two.txt", "a-file.txt", "c", "c/three.txt"),
+                walk(new SortedFileWalker(tempDir)));
+    }
+
+    @Test
+    @DisplayName("resumed walk continues right after the resume path")
+    void resumeExclusive() {
+        assertEquals(List.of("a/two.txt", "a-file.txt", "c", "c/three.txt"),
+                walk(new SortedFileWalker(SortedFileWalker.DISK, tempDir, tempDir.resolve("a/b/one.txt"), false)));
+    }
+
+    @Test
+    @DisplayName("inclusive resume yields the resume path again")
+    void resumeInclusive() {
+        assertEquals(List.of("a-file.txt", "c", "c/three.txt"),
+                walk(new SortedFileWalker(SortedFileWalker.DISK, tempDir, tempDir.resolve("a-file.txt"), true)));
+    }
+
+    @Test
+    @DisplayName("pruned directories are yielded but not entered")
+    void pruneDirectory() {
+        assertEquals(List.of("a", "a-file.txt", "c", "c/three.txt"),
+                walk(new SortedFileWalker(SortedFileWalker.DISK, tempDir, null, false, dir -> !dir.endsWith("a"))));
+    }
+}
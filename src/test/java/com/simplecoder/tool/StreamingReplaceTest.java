@@ -0,0 +1,83 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingReplaceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StreamingReplace.Match find(Path file, String needle, long windowSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return StreamingReplace.find(channel, needle.getBytes(StandardCharsets.UTF_8), true, windowSize);
+        }
+    }
+
+    private static int countOccurrences(String content, String target) {
+        int count = 0;
+        for (int index = content.indexOf(target); index >= 0; index = content.indexOf(target, index + target.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    @DisplayName("matches agree with String.indexOf for every window size, including matches spanning windows")
+    void agreesWithIndexOf() throws IOException {
+        Random random = new Random(11);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("abcé".charAt(random.nextInt(4)));
+        }
+        String content = text.toString();
+        Path file = Files.writeString(tempDir.resolve("data.txt"), content);
+        byte[] bytes = Files.readAllBytes(file);
+
+        for (String needle : new String[]{"a", "aa", "abca", "ééa", "cbacbacba", "zzz"}) {
+            int expectedCount = countOccurrences(content, needle);
+            int firstChar = content.indexOf(needle);
+            long expectedPosition = firstChar < 0 ? -1 : content.substring(0, firstChar).getBytes(StandardCharsets.UTF_8).length;
+            for (long window : new long[]{1, 3, 7, 64, 1000, 1 << 20}) {
+                StreamingReplace.Match match = find(file, needle, window);
+                assertEquals(expectedCount, match.count(), needle + " / window " + window);
+                assertEquals(expectedPosition, match.position(), needle + " / window " + window);
+                assertEquals(ContentHash.of(bytes), match.hash());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("write produces prefix + replacement + suffix")
+    void writesReplacement() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("in.txt"), "first line\nneedle here\nlast line\n");
+        Path out = tempDir.resolve("out.txt");
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(out, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            StreamingReplace.Match match = StreamingReplace.find(source, "needle".getBytes(StandardCharsets.UTF_8), false);
+            assertNull(match.hash());
+            StreamingReplace.write(source, match.position(), 6, "thread".getBytes(StandardCharsets.UTF_8), target);
+        }
+        assertEquals("first line\nthread here\nlast line\n", Files.readString(out));
+    }
+
+    @Test
+    @DisplayName("empty files and needles longer than the file find nothing")
+    void findsNothingInShortFiles() throws IOException {
+        Path empty = Files.writeString(tempDir.resolve("empty.txt"), "");
+        assertEquals(new StreamingReplace.Match(0, -1, ContentHash.of(new byte[0])), find(empty, "x", 4));
+        Path small = Files.writeString(tempDir.resolve("small.txt"), "ab");
+        assertEquals(0, find(small, "abc", 1).count());
+    }
+}
@@ -0,0 +1,158 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PathValidator pathValidator;
+
+    @BeforeEach
+    void setup() throws IOException {
+        pathValidator = new PathValidator(tempDir.toString());
+        Files.createDirectories(tempDir.resolve("src"));
+        Files.writeString(tempDir.resolve("src/Alpha.java"), "class AlphaService {}");
+        Files.writeString(tempDir.resolve("src/Beta.java"), "class BetaRepository {}");
+        Files.writeString(tempDir.resolve("notes.txt"), "alphaservice mentioned in lower case");
+    }
+
+    /**
+     * Files under scope (in walk order) kept by the index's filter, or empty if the index cannot answer.
+     */
+    private static Optional<List<Path>> candidates(TrigramIndex index, Path scope, List<List<String>> clauses,
+                                                   boolean caseSensitive) {
+        Optional<Predicate<Path>> filter = index.candidateFilter(scope, clauses, caseSensitive);
+        if (filter.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Path> files = new ArrayList<>();
+        for (Iterator<SortedFileWalker.Entry> walk = new SortedFileWalker(scope); walk.hasNext(); ) {
+            SortedFileWalker.Entry entry = walk.next();
+            if (entry.regularFile() && filter.get().test(entry.path())) {
+                files.add(entry.path());
+            }
+        }
+        return Optional.of(files);
+    }
+
+    @Test
+    @DisplayName("candidates returns only files containing the literal trigrams")
+    void candidatesNarrowsToMatchingFiles() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1024, 300);
+        index.rebuild();
+
+        List<Path> files = candidates(index, pathValidator.getRepoRoot(), List.of(List.of("AlphaService")), true).orElseThrow();
+
+        assertTrue(files.contains(tempDir.resolve("src/Alpha.java")));
+        assertFalse(files.contains(tempDir.resolve("src/Beta.java")));
+    }
+
+    @Test
+    @DisplayName("candidates is restricted to the requested scope")
+    void candidatesRespectsScope() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1024, 300);
+        index.rebuild();
+
+        List<Path> files = candidates(index, tempDir.resolve("src"), List.of(List.of("alphaservice")), false).orElseThrow();
+
+        assertEquals(List.of(tempDir.resolve("src/Alpha.java")), files);
+    }
+
+    @Test
+    @DisplayName("literals shorter than a trigram cannot be answered by the index")
+    void shortLiteralFallsBack() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1024, 300);
+        index.rebuild();
+
+        assertEquals(Optional.empty(), candidates(index, pathValidator.getRepoRoot(), List.of(List.of("ab")), true));
+    }
+
+    @Test
+    @DisplayName("invalidated files stay candidates until the next rebuild")
+    void invalidatedFileIsAlwaysCandidate() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1024, 300);
+        index.rebuild();
+        Path beta = tempDir.resolve("src/Beta.java");
+        Files.writeString(beta, "class BetaRepository extends AlphaService {}");
+        index.invalidate(beta);
+
+        List<Path> files = candidates(index, pathValidator.getRepoRoot(), List.of(List.of("AlphaService")), true).orElseThrow();
+
+        assertTrue(files.contains(beta));
+    }
+
+    @Test
+    @DisplayName("files changed or created outside the agent after the build are kept")
+    void externalChangesAreCandidates() throws IOException {
+        Path delta = Files.writeString(tempDir.resolve("src/Delta.java"), "class Delta {}");
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1024, 300);
+        index.rebuild();
+        Path beta = tempDir.resolve("src/Beta.java");
+        FileTime indexedAt = Files.getLastModifiedTime(beta);
+        Files.writeString(beta, "class BetaRepository extends AlphaService {}");
+        Files.setLastModifiedTime(beta, FileTime.fromMillis(indexedAt.toMillis() + 2000));
+        Path gamma = Files.writeString(tempDir.resolve("src/Gamma.java"), "class Gamma extends AlphaService {}");
+
+        List<Path> files = candidates(index, pathValidator.getRepoRoot(), List.of(List.of("AlphaService")), true).orElseThrow();
+
+        assertTrue(files.contains(beta));
+        assertTrue(files.contains(gamma));
+        assertFalse(files.contains(delta), "unchanged non-matching files are still skipped");
+    }
+
+    @Test
+    @DisplayName("disabled index never answers queries")
+    void disabledIndexFallsBack() {
+        TrigramIndex index = TrigramIndex.disabled(pathValidator);
+
+        assertEquals(Optional.empty(), candidates(index, pathValidator.getRepoRoot(), List.of(List.of("AlphaService")), true));
+    }
+
+    @Test
+    @DisplayName("alternation clauses select files containing any alternative")
+    void alternationClause() throws IOException {
+        TrigramIndex index = new TrigramIndex(pathValidator, IgnoreRules.none(pathValidator), true, 1024, 300);
+        index.rebuild();
+
+        List<Path> files = candidates(index, tempDir.resolve("src"), List.of(List.of("AlphaService", "BetaRepository")), true)
+                .orElseThrow();
+
+        assertEquals(2, files.size());
+    }
+
+    @Test
+    @DisplayName("RegexLiterals extracts required clauses")
+    void regexLiteralExtraction() {
+        assertEquals(List.of("class", "Foo"), RegexLiterals.requiredLiterals("class\\s+Foo\\w*"));
+        assertEquals(List.of("get", "Name"), RegexLiterals.requiredLiterals("get(User)?Name"));
+        assertEquals(List.of("abc"), RegexLiterals.requiredLiterals("abcd?"));
+        assertEquals(List.of("a.b"), RegexLiterals.requiredLiterals("a\\.b"));
+        assertEquals(List.of("ab"), RegexLiterals.requiredLiterals("\\Qabc\\E?"));
+        assertEquals(List.of("xa"), RegexLiterals.requiredLiterals("x\\Qab\\E*"));
+        assertEquals(List.of("a.", "c", "d"), RegexLiterals.requiredLiterals("\\Qa.c\\E+d"));
+        assertEquals(List.of("a.c"), RegexLiterals.requiredLiterals("\\Qa.c\\E"));
+        assertEquals(List.of(List.of("foo", "bar")), RegexLiterals.requiredClauses("foo|bar"));
+        assertEquals(List.of(List.of("class"), List.of("Foo", "Bar"), List.of("Impl")),
+                RegexLiterals.requiredClauses("class\\s+(Foo|Bar)Impl"));
+        assertEquals(List.of(), RegexLiterals.requiredClauses("foo|\\d+"));
+        assertEquals(List.of(), RegexLiterals.requiredClauses("(?i)foo"));
+        assertEquals(List.of(List.of("bar")), RegexLiterals.requiredClauses("(?=foo)bar"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.simplecoder.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnifiedDiffTest {
+
+    private static String apply(String content, String diff) throws UnifiedDiff.PatchException {
+        List<UnifiedDiff.FilePatch> patches = UnifiedDiff.parse(diff);
+        assertEquals(1, patches.size());
+        return UnifiedDiff.apply(content, patches.get(0).hunks()).content();
+    }
+
+    @Test
+    @DisplayName("git diffs are parsed per file with a/ b/ prefixes and /dev/null handled")
+    void parsesGitDiff() throws UnifiedDiff.PatchException {
+        List<UnifiedDiff.FilePatch> patches = UnifiedDiff.parse("""
+                Here is the change:
+                diff --git a/src/A.java b/src/A.java
+                index 1234567..89abcde 100644
+                --- a/src/A.java
+                +++ b/src/A.java
+                @@ -1,3 +1,3 @@
+                 class A {
+                -    int x;
+                +    long x;
+                 }
+                @@ -10,2 +10,3 @@ void m() {
+                 a
+                +b
+                 c
+                --- /dev/null
+                +++ b/src/New.java
+                @@ -0,0 +1 @@
+                +class New {}
+                """);
+
+        assertEquals(2, patches.size());
+        assertEquals("src/A.java", patches.get(0).path());
+        assertEquals(2, patches.get(0).hunks().size());
+        UnifiedDiff.Hunk second = patches.get(0).hunks().get(1);
+        assertEquals(10, second.oldStart());
+        assertEquals(List.of("a", "c"), second.oldLines());
+        assertEquals(List.of("a", "b", "c"), second.newLines());
+        assertNull(patches.get(1).oldPath());
+        assertEquals("src/New.java", patches.get(1).path());
+    }
+
+    @Test
+    @DisplayName("hunks are found by context when the line numbers are off")
+    void appliesAtOffset() throws UnifiedDiff.PatchException {
+        String content = "header\nheader\nheader\none\ntwo\nthree\nfour\n";
+        List<UnifiedDiff.FilePatch> patches = UnifiedDiff.parse("""
+                --- a.txt
+                +++ a.txt
+                @@ -1,3 +1,3 @@
+                 one
+                -two
+                +TWO
+                 three
+                """);
+
+        UnifiedDiff.Applied applied = UnifiedDiff.apply(content, patches.get(0).hunks());
+        assertEquals("header\nheader\nheader\none\nTWO\nthree\nfour\n", applied.content());
+        assertEquals(3, applied.hunks().get(0).offset());
+        assertFalse(applied.hunks().get(0).ignoredWhitespace());
+    }
+
+    @Test
+    @DisplayName("later hunks shift by the lines earlier hunks added")
+    void appliesSeveralHunks() throws UnifiedDiff.PatchException {
+        String content = "a\nb\nc\nd\ne\nf\ng\n";
+        String result = apply(content, """
+                --- f
+                +++ f
+                @@ -1,2 +1,4 @@
+                 a
+                +a1
+                +a2
+                 b
+                @@ -6,2 +8,2 @@
+                -f
+                +F
+                 g
+                """);
+        assertEquals("a\na1\na2\nb\nc\nd\ne\nF\ng\n", result);
+    }
+
+    @Test
+    @DisplayName("CRLF line endings are preserved and used for added lines")
+    void preservesCrlf() throws UnifiedDiff.PatchException {
+        String result = apply("one\r\ntwo\r\nthree\r\n", """
+                --- f
+                +++ f
+                @@ -1,3 +1,4 @@
+                 one
+                -two
+                +2
+                +2.5
+                 three
+                """);
+        assertEquals("one\r\n2\r\n2.5\r\nthree\r\n", result);
+    }
+
+    @Test
+    @DisplayName("trailing whitespace differences are tolerated as a fallback")
+    void ignoresTrailingWhitespace() throws UnifiedDiff.PatchException {
+        List<UnifiedDiff.FilePatch> patches = UnifiedDiff.parse("--- f\n+++ f\n@@ -1,2 +1,2 @@\n one\n-two\n+2\n");
+        UnifiedDiff.Applied applied = UnifiedDiff.apply("one  \ntwo\t\n", patches.get(0).hunks());
+        assertEquals("one\n2\n", applied.content()); // matched lines take the hunk's text, context included
+        assertTrue(applied.hunks().get(0).ignoredWhitespace());
+    }
+
+    @Test
+    @DisplayName("'No newline at end of file' markers are honoured on both sides")
+    void handlesMissingFinalNewline() throws UnifiedDiff.PatchException {
+        assertEquals("a\nB\n", apply("a\nb", """
+                --- f
+                +++ f
+                @@ -1,2 +1,2 @@
+                 a
+                -b
+                \\ No newline at end of file
+                +B
+                """));
+        assertEquals("a\nB", apply("a\nb\n", """
+                --- f
+                +++ f
+                @@ -1,2 +1,2 @@
+                 a
+                -b
+                +B
+                \\ No newline at end of file
+                """));
+        assertEquals("created\n", apply("", "--- /dev/null\n+++ f\n@@ -0,0 +1 @@\n+created\n"));
+    }
+
+    @Test
+    @DisplayName("a hunk ends at its header's counts, so commentary after the diff is ignored")
+    void stopsHunkAtHeaderCounts() throws UnifiedDiff.PatchException {
+        String diff = """
+                --- f
+                +++ f
+                @@ -1,2 +1,2 @@
+                 a
+                -b
+                +B
+
+                This renames b to B. Let me know if anything else is needed.
+                """;
+        assertEquals("a\nB\nc\n", apply("a\nb\nc\n", diff));
+
+        // Miscounted headers fall back to reading until the next header
+        assertEquals("a\nB\nC\n", apply("a\nb\nc\n", "--- f\n+++ f\n@@ -1,2 +1,2 @@\n a\n-b\n-c\n+B\n+C\n"));
+    }
+
+    @Test
+    @DisplayName("a hunk whose context is missing and malformed diffs are rejected")
+    void rejectsMismatchAndMalformed() {
+        UnifiedDiff.PatchException mismatch = assertThrows(UnifiedDiff.PatchException.class, () ->
+                apply("a\nb\nc\n", "--- f\n+++ f\n@@ -1,2 +1,2 @@\n a\n-x\n+y\n"));
+        assertTrue(mismatch.getMessage().contains("hunk 1 (@@ -1,2 +1,2 @@) does not match"));
+
+        assertThrows(UnifiedDiff.PatchException.class, () -> UnifiedDiff.parse("just some text\n"));
+        assertThrows(UnifiedDiff.PatchException.class, () -> UnifiedDiff.parse("--- f\n+++ f\n@@ bad @@\n a\n"));
+        assertThrows(UnifiedDiff.PatchException.class, () -> UnifiedDiff.parse("--- f\n+++ f\n@@ -1,2 +1,2 @@\n a\n?b\n"));
+        assertThrows(UnifiedDiff.PatchException.class, () -> UnifiedDiff.parse("--- f\n+++ f\n"));
+    }
+}